@@ -0,0 +1,43 @@
+package com.example.hardcoreban;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /hb duration parsing (every death) and the countdown text (every visible head, once a minute).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BanDurationsBenchmark {
+
+    @Param({"36h", "12h30m", "5y3d9h3m8s"})
+    public String duration;
+
+    private final long now = 1_700_000_000_000L;
+    private final long[] untils = {now + 90_000L, now + 5_400_000L, now + 200_000_000L};
+    private int i;
+
+    @Benchmark
+    public long parse() {
+        return BanDurations.parseToMillis(duration);
+    }
+
+    @Benchmark
+    public String formatRemaining() {
+        return BanDurations.formatRemaining(untils[i++ % untils.length], now);
+    }
+}
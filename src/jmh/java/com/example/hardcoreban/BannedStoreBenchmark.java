@@ -0,0 +1,114 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banned store save (store snapshot + serialize, as compaction does) and load, JSON vs banned.bin,
+ * at 1k / 100k / 1M bans.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BannedStoreBenchmark {
+
+    // same settings as HardcoreBanMod.GSON
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    @Param({"1000", "100000", "1000000"})
+    public int bans;
+
+    private BanStore store;
+    private String json;
+    private Path bin;
+    private Path binOut;
+    private final UUID churn = UUID.randomUUID();
+    private long tick;
+
+    @Setup
+    public void setup() {
+        BanTable table = randomTable(bans, 42L);
+        store = new BanStore();
+        store.replaceAll(table);
+        json = GSON.toJson(BannedStoreCodec.toJson(table));
+        try {
+            bin = Files.createTempFile("hardcoreban-bench", ".bin");
+            binOut = Files.createTempFile("hardcoreban-bench-out", ".bin");
+            BannedStoreBinary.write(table, bin);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // one ban changed since the last snapshot: only its stripe is re-copied
+    @Benchmark
+    public BanEntries snapshotAfterWrite() {
+        store.put(churn, "Churn", ++tick);
+        return store.snapshot();
+    }
+
+    @Benchmark
+    public void save() {
+        GSON.toJson(BannedStoreCodec.toJson(store.snapshot()), Writer.nullWriter());
+    }
+
+    @Benchmark
+    public BanTable load() throws IOException {
+        BanTable into = new BanTable();
+        BannedStoreCodec.read(new StringReader(json), into::put, new PlayerNames(), 0L);
+        return into;
+    }
+
+    // what startup does: stream straight into the live store
+    @Benchmark
+    public BanStore loadIntoStore() throws IOException {
+        BanStore into = new BanStore();
+        BannedStoreCodec.read(new StringReader(json), into::put, new PlayerNames(), 0L);
+        return into;
+    }
+
+    @Benchmark
+    public void saveBinary() throws IOException {
+        BannedStoreBinary.write(store.snapshot(), binOut);
+    }
+
+    @Benchmark
+    public BanTable loadBinary() throws IOException {
+        BanTable into = new BanTable(bans);
+        BannedStoreBinary.read(bin, into::put, new PlayerNames(), 0L);
+        return into;
+    }
+
+    static BanTable randomTable(int n, long seed) {
+        Random rnd = new Random(seed);
+        long now = System.currentTimeMillis();
+        BanTable t = new BanTable();
+        for (int i = 0; i < n; i++) {
+            t.put(new UUID(rnd.nextLong(), rnd.nextLong()), "Player" + i, now + 1 + (rnd.nextLong() & 0x3ffffffffL));
+        }
+        return t;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.hardcoreban;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keystroke of /revive tab completion: up to 50 banned names for a 0-2 char prefix,
+ * plus the ban/unban upkeep, at 1k / 50k / 500k banned names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class NameTrieBenchmark {
+
+    @Param({"1000", "50000", "500000"})
+    public int names;
+
+    private NameTrie trie;
+    private String[] generated;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(11L);
+        trie = new NameTrie();
+        generated = new String[names];
+        for (int i = 0; i < names; i++) {
+            // Minecraft names: 3-16 of [A-Za-z0-9_]
+            char[] c = new char[3 + rnd.nextInt(14)];
+            for (int j = 0; j < c.length; j++) c[j] = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_".charAt(rnd.nextInt(63));
+            generated[i] = new String(c);
+            trie.add(generated[i]);
+        }
+    }
+
+    @Benchmark
+    public int complete(Blackhole bh) {
+        String name = generated[next++ % names];
+        return trie.complete(name.substring(0, next % 3), 50, bh::consume);
+    }
+
+    // a ban lifted and put back: what every unban + ban costs the index
+    @Benchmark
+    public void removeAndAdd() {
+        String name = generated[next++ % names];
+        trie.remove(name);
+        trie.add(name);
+    }
+}
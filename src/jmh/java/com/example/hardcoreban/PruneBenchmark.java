@@ -0,0 +1,84 @@
+package com.example.hardcoreban;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What pruneExpiredAndOnline does without a server: pop the bans that ran out from the expiry index,
+ * then drop the bans of 100 online players. 1% of the store is expired on every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PruneBenchmark {
+
+    private static final int ONLINE = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int bans;
+
+    private final long now = 1_700_000_000_000L;
+    private UUID[] ids;
+    private long[] untils;
+
+    private BanTable table;
+    private ExpiryIndex<UUID> expiry;
+    private UUID[] online;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random rnd = new Random(7L);
+        ids = new UUID[bans];
+        untils = new long[bans];
+        for (int i = 0; i < bans; i++) {
+            ids[i] = new UUID(rnd.nextLong(), rnd.nextLong());
+            // every 100th ban is already over
+            untils[i] = (i % 100 == 0) ? now - 1 - rnd.nextInt(60_000) : now + 1 + (rnd.nextLong() & 0x3ffffffffL);
+        }
+        online = new UUID[ONLINE];
+        for (int i = 0; i < ONLINE; i++) online[i] = (i % 2 == 0) ? ids[rnd.nextInt(bans)] : UUID.randomUUID();
+    }
+
+    // pruning mutates the store, so every invocation starts from the same state
+    @Setup(Level.Invocation)
+    public void fill() {
+        table = new BanTable();
+        expiry = new ExpiryIndex<>();
+        for (int i = 0; i < bans; i++) {
+            table.put(ids[i], "Player" + i, untils[i]);
+            expiry.schedule(ids[i], untils[i]);
+        }
+    }
+
+    @Benchmark
+    public int prune() {
+        List<UUID> removed = new ArrayList<>();
+        expiry.pollExpired(now, id -> table.get(id, 0L), id -> {
+            table.remove(id);
+            removed.add(id);
+        });
+        for (UUID id : online) {
+            if (table.remove(id)) removed.add(id);
+        }
+        return removed.size();
+    }
+}
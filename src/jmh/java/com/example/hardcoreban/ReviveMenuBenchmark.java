@@ -0,0 +1,77 @@
+package com.example.hardcoreban;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.inventory.SimpleInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two halves of openReviveMenu: building the sorted view behind the pages (pure), and turning one
+ * page into head stacks in an inventory (needs the vanilla registries, bootstrapped once per fork).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReviveMenuBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int bans;
+
+    private BanTable table;
+    private List<BanListView.Row> firstPage;
+
+    @Setup
+    public void setup() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        table = BannedStoreBenchmark.randomTable(bans, 42L);
+        List<BanListView.Row> rows = BanListView.build(table, BanListView.Sort.SOONEST, BanListView.Filter.ALL,
+                System.currentTimeMillis());
+        firstPage = rows.subList(0, Math.min(ReviveMenuHandler.PAGE_SIZE, rows.size()));
+    }
+
+    @Benchmark
+    public List<BanListView.Row> buildView() {
+        return BanListView.build(table, BanListView.Sort.SOONEST, BanListView.Filter.ALL, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public List<BanListView.Row> buildViewByName() {
+        return BanListView.build(table, BanListView.Sort.NAME, BanListView.Filter.ALL, System.currentTimeMillis());
+    }
+
+    // uncached: every head built from scratch, as on the first open after a restart
+    @Benchmark
+    public SimpleInventory buildPage() {
+        long now = System.currentTimeMillis();
+        SimpleInventory inv = new SimpleInventory(ReviveMenuHandler.SIZE);
+        for (int i = 0; i < firstPage.size(); i++) {
+            BanListView.Row row = firstPage.get(i);
+            ItemStack head = HeadCache.build(row.id(), row.name(), null);
+            head.set(DataComponentTypes.CUSTOM_NAME,
+                    Text.literal(row.name() + " §7(" + BanDurations.formatRemaining(row.untilMs(), now) + ")"));
+            inv.setStack(i, head);
+        }
+        return inv;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.hardcoreban;
+
+import java.util.Locale;
+
+/**
+ * Ban duration strings ("36h", "5y3d9h3m8s") and the remaining-time text shown to players.
+ * Pure functions, no Minecraft types, so they can be benchmarked (src/jmh) without a server.
+ */
+final class BanDurations {
+
+    private BanDurations() {}
+
+    /**
+     * Milliseconds for a duration like "12h30m", or -1 if it does not parse.
+     */
+    static long parseToMillis(String s) {
+        if (s == null) return -1L;
+
+        String str = s.trim().toLowerCase(Locale.ROOT);
+        if (str.isEmpty()) return -1L;
+
+        long total = 0L;
+        int i = 0;
+
+        while (i < str.length()) {
+            int start = i;
+            while (i < str.length() && Character.isDigit(str.charAt(i))) i++;
+            if (start == i) return -1L;
+
+            long num;
+            try {
+                num = Long.parseLong(str.substring(start, i));
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+
+            if (i >= str.length()) return -1L;
+
+            char unit = str.charAt(i++);
+            long mul;
+            switch (unit) {
+                case 's' -> mul = 1000L;
+                case 'm' -> mul = 60_000L;
+                case 'h' -> mul = 3_600_000L;
+                case 'd' -> mul = 86_400_000L;
+                case 'y' -> mul = 31_536_000_000L;
+                default -> { return -1L; }
+            }
+
+            total += num * mul;
+        }
+
+        return total;
+    }
+
+    /**
+     * "2d 5h" / "3h 12m" / "7m" until {@code untilMs}, or "" once it has passed.
+     */
+    static String formatRemaining(long untilMs, long now) {
+        if (untilMs <= now) return "";
+
+        long ms = untilMs - now;
+
+        long s = ms / 1000L;
+        long days = s / 86400L; s %= 86400L;
+        long hours = s / 3600L; s %= 3600L;
+        long mins = s / 60L;
+
+        if (days > 0) return days + "d " + hours + "h";
+        if (hours > 0) return hours + "h " + mins + "m";
+        return mins + "m";
+    }
+}
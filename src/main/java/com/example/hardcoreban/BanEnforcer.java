@@ -0,0 +1,186 @@
+package com.example.hardcoreban;
+
+import com.example.hardcoreban.mixin.ServerConfigListAccessor;
+import net.minecraft.server.BannedPlayerEntry;
+import net.minecraft.server.BannedPlayerList;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.PlayerConfigEntry;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.ServerConfigEntry;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies and lifts hardcore bans. Selected by "enforcement" in config.json:
+ *
+ * <ul>
+ *   <li>{@code index} (default): the mod's own banned store is the ban. Online players are kicked here and
+ *       banned logins are refused by the mod. Writes are the store's journal, so a whole batch costs one
+ *       background append.</li>
+ *   <li>{@code vanilla}: additionally mirrored into the server's banned-players list, so /pardon and other
+ *       tools see it. Entries are changed in memory and banned-players.json is rewritten at most
+ *       once per tick ({@link #saveVanillaList}), not once per ban as vanilla's own add/remove would.</li>
+ *   <li>{@code command}: the old behaviour, dispatching "tempban"/"unban" strings to an external ban mod.
+ *       If those commands are not registered this says so and falls back to {@code index}.</li>
+ * </ul>
+ */
+final class BanEnforcer {
+
+    enum Mode {
+        INDEX, VANILLA, COMMAND;
+
+        static Mode parse(String s) {
+            if (s == null) return INDEX;
+            try {
+                return valueOf(s.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                HbLog.warn("Unknown enforcement mode '" + s + "', using index");
+                return INDEX;
+            }
+        }
+    }
+
+    record Ban(UUID id, String name, long untilMs, String duration, String reason, long queuedNanos) {}
+
+    private static final String SOURCE = "HardcoreBan";
+
+    private volatile Mode mode = Mode.INDEX;
+    private boolean warnedMissingCommand = false;
+    private boolean vanillaDirty = false;   // banned-players entries changed since the last save
+
+    Mode mode() {
+        return mode;
+    }
+
+    void setMode(Mode mode) {
+        this.mode = mode;
+        this.warnedMissingCommand = false;
+    }
+
+    /**
+     * Whether logins must be refused by the mod itself (nobody else knows about the ban).
+     */
+    boolean enforcesLogin(MinecraftServer server) {
+        return effectiveMode(server, "tempban") == Mode.INDEX;
+    }
+
+    /**
+     * Server thread: applies every queued ban of this tick in one pass.
+     */
+    void apply(MinecraftServer server, List<Ban> bans) {
+        if (bans.isEmpty()) return;
+
+        Mode m = effectiveMode(server, "tempban");
+        if (m == Mode.COMMAND) {
+            for (Ban b : bans) {
+                runCommand(server, "tempban " + b.name() + " " + b.duration() + " " + quote(b.reason()));
+            }
+            return;
+        }
+
+        PlayerManager pm = server.getPlayerManager();
+        if (pm == null) return;
+
+        long now = System.currentTimeMillis();
+        if (m == Mode.VANILLA) {
+            ServerConfigListAccessor list = (ServerConfigListAccessor) pm.getUserBanList();
+            Map<String, ServerConfigEntry<?>> entries = list.hardcoreban$entries();
+            for (Ban b : bans) {
+                if (BannedStoreCodec.expired(b.untilMs(), now)) continue;
+                PlayerConfigEntry player = new PlayerConfigEntry(b.id(), b.name());
+                Date expiry = b.untilMs() == 0L ? null : new Date(b.untilMs()); // null: vanilla's permanent ban
+                entries.put(list.hardcoreban$keyOf(player), new BannedPlayerEntry(player, new Date(), SOURCE, expiry, b.reason()));
+            }
+            vanillaDirty = true;
+        }
+
+        for (Ban b : bans) {
+            if (BannedStoreCodec.expired(b.untilMs(), now)) continue;
+            ServerPlayerEntity sp = pm.getPlayer(b.id());
+            if (sp != null) sp.networkHandler.disconnect(banMessage(b.untilMs()));
+        }
+        HbLog.debug("Applied {} ban(s) mode={}", bans.size(), m);
+    }
+
+    /**
+     * Server thread: lifts a ban that the store has already dropped.
+     */
+    void lift(MinecraftServer server, UUID id, String name) {
+        Mode m = effectiveMode(server, "unban");
+        switch (m) {
+            case COMMAND -> runCommand(server, "unban " + name);
+            case VANILLA -> {
+                PlayerManager pm = server.getPlayerManager();
+                if (pm == null) return;
+                ServerConfigListAccessor list = (ServerConfigListAccessor) pm.getUserBanList();
+                if (list.hardcoreban$entries().remove(list.hardcoreban$keyOf(new PlayerConfigEntry(id, name))) != null) {
+                    vanillaDirty = true;
+                }
+            }
+            case INDEX -> {} // dropping it from the store was the unban
+        }
+    }
+
+    /**
+     * Server thread, once per tick (and at stop): one rewrite of banned-players.json for everything
+     * applied or lifted since the last one. It stays on the server thread because vanilla's /ban and
+     * /pardon change the same entries there.
+     */
+    void saveVanillaList(MinecraftServer server) {
+        if (!vanillaDirty || server == null) return;
+        PlayerManager pm = server.getPlayerManager();
+        if (pm == null) return;
+
+        vanillaDirty = false;
+        BannedPlayerList list = pm.getUserBanList();
+        try {
+            list.save();
+        } catch (IOException e) {
+            HbLog.error("Failed to save the vanilla ban list", e);
+        }
+    }
+
+    static Text banMessage(long untilMs) {
+        String remaining = HardcoreBanMod.formatRemaining(untilMs);
+        return Text.literal("§cYou died and are banned from this server."
+                + (remaining.isEmpty() ? "" : "\n§7Ban ends in §f" + remaining));
+    }
+
+    private Mode effectiveMode(MinecraftServer server, String command) {
+        Mode m = mode;
+        if (m != Mode.COMMAND) return m;
+
+        if (server.getCommandManager().getDispatcher().getRoot().getChild(command) == null) {
+            if (!warnedMissingCommand) {
+                warnedMissingCommand = true;
+                HbLog.warn("enforcement=command but /" + command
+                        + " is not registered (is the ban mod installed?). Enforcing bans from the HardcoreBan store instead.");
+            }
+            return Mode.INDEX;
+        }
+        return m;
+    }
+
+    private static void runCommand(MinecraftServer server, String command) {
+        try {
+            ServerCommandSource source = server.getCommandSource().withSilent();
+            server.getCommandManager().getDispatcher().execute(command, source);
+        } catch (Exception e) {
+            HbLog.error("Command failed: " + command, e);
+        }
+    }
+
+    private static String quote(String s) {
+        if (s == null) return "\"\"";
+        String escaped = s.replace("\\", "\\\\").replace("\"", "\\\"");
+        return "\"" + escaped + "\"";
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.hardcoreban;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read side of the banned store: UUID -> untilEpochMs plus the last known name.
+ * Implemented by {@link BanTable} and by the immutable snapshots of {@link BanStore}.
+ */
+interface BanEntries {
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Changes whenever the contents do; lets readers cache derived views.
+     */
+    long version();
+
+    /**
+     * Ids whose entry may differ from what it was at {@code version}, or null if that is not known and
+     * a reader has to rescan.
+     */
+    default List<UUID> changedSince(long version) {
+        return null;
+    }
+
+    /**
+     * Expiry for {@code id}, or {@code absent} if it is not banned.
+     */
+    long get(UUID id, long absent);
+
+    String nameOf(UUID id);
+
+    boolean contains(UUID id);
+
+    /**
+     * Linear scan by display name (case-insensitive).
+     */
+    UUID findByName(String name);
+
+    void forEach(BanTable.Visitor visitor);
+}
@@ -0,0 +1,147 @@
+package com.example.hardcoreban;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sorted, filtered rows of the banned store behind the revive menu's pages.
+ *
+ * Each sort order is built once and then kept sorted as bans change: the ids written since the last
+ * version (see {@link BanEntries#changedSince}) are removed and re-inserted by binary search, so a death
+ * costs O(log n) per order rather than a re-sort. Filtered rows are a linear pass over the sorted ones,
+ * redone only when they are asked for. Everything is shared by every open menu.
+ * No Minecraft types, so building a view can be benchmarked (src/jmh) without a server.
+ */
+final class BanListView {
+
+    record Row(UUID id, String name, long untilMs) {}
+
+    enum Sort {
+        NAME("Name", Comparator.comparing(Row::name, String.CASE_INSENSITIVE_ORDER)),
+        SOONEST("Expires soonest", Comparator.comparingLong(Row::untilMs)),
+        LATEST("Expires latest", Comparator.comparingLong(Row::untilMs).reversed());
+
+        final String label;
+        final Comparator<Row> order;
+
+        Sort(String label, Comparator<Row> order) {
+            this.label = label;
+            this.order = order.thenComparing(Row::id); // total, so a row is found again by binary search
+        }
+
+        Sort next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    enum Filter {
+        ALL("All", -1L),
+        UNDER_HOUR("< 1 hour left", 3_600_000L),
+        UNDER_DAY("< 1 day left", 86_400_000L);
+
+        final String label;
+        final long withinMs;
+
+        Filter(String label, long withinMs) {
+            this.label = label;
+            this.withinMs = withinMs;
+        }
+
+        boolean accepts(long untilMs, long now) {
+            return withinMs < 0L || untilMs - now <= withinMs;
+        }
+
+        Filter next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+
+    private record View(long storeVersion, long minute, List<Row> rows) {}
+
+    // past this many changes a fresh sort is cheaper than shifting the lists once per change
+    private static final int MAX_PATCH = 256;
+
+    // server thread only
+    private long version = -1L;                                            // store version the rows below reflect
+    private final Map<UUID, Row> byId = new HashMap<>();
+    private final Map<Sort, List<Row>> sorted = new EnumMap<>(Sort.class); // orders asked for so far
+    private final Map<Sort, Map<Filter, View>> filtered = new EnumMap<>(Sort.class);
+
+    /**
+     * Rows for (sort, filter), brought up to date with the store first. The list is only valid until
+     * the next call.
+     */
+    List<Row> rows(BanEntries store, Sort sort, Filter filter, long now) {
+        sync(store);
+        List<Row> all = sorted.computeIfAbsent(sort, s -> sort(byId.values(), s));
+        if (filter == Filter.ALL) return Collections.unmodifiableList(all);
+
+        // time filters move with the clock; re-evaluate them at most once a minute
+        long minute = now / 60_000L;
+        Map<Filter, View> bySort = filtered.computeIfAbsent(sort, s -> new EnumMap<>(Filter.class));
+        View view = bySort.get(filter);
+        if (view == null || view.storeVersion() != version || view.minute() != minute) {
+            List<Row> rows = new ArrayList<>();
+            for (Row row : all) {
+                if (filter.accepts(row.untilMs(), now)) rows.add(row);
+            }
+            view = new View(version, minute, List.copyOf(rows));
+            bySort.put(filter, view);
+        }
+        return view.rows();
+    }
+
+    private void sync(BanEntries store) {
+        if (version == store.version()) return;
+
+        List<UUID> changed = version < 0L ? null : store.changedSince(version);
+        version = store.version();
+        if (changed == null || changed.size() > MAX_PATCH) {
+            byId.clear();
+            store.forEach((hi, lo, name, until) -> {
+                UUID id = new UUID(hi, lo);
+                byId.put(id, row(id, name, until));
+            });
+            sorted.replaceAll((sort, rows) -> sort(byId.values(), sort));
+            return;
+        }
+
+        for (UUID id : changed) {
+            long until = store.get(id, -1L);
+            Row now = until < 0L ? null : row(id, store.nameOf(id), until);
+            Row old = now == null ? byId.remove(id) : byId.put(id, now);
+            if (now == null ? old == null : now.equals(old)) continue;
+
+            sorted.forEach((sort, rows) -> {
+                if (old != null) rows.remove(Collections.binarySearch(rows, old, sort.order));
+                if (now != null) rows.add(-Collections.binarySearch(rows, now, sort.order) - 1, now);
+            });
+        }
+    }
+
+    static List<Row> build(BanEntries store, Sort sort, Filter filter, long now) {
+        List<Row> rows = new ArrayList<>(store.size());
+        store.forEach((hi, lo, name, until) -> {
+            if (filter.accepts(until, now)) rows.add(row(new UUID(hi, lo), name, until));
+        });
+        rows.sort(sort.order);
+        return List.copyOf(rows);
+    }
+
+    private static List<Row> sort(Collection<Row> rows, Sort sort) {
+        List<Row> list = new ArrayList<>(rows);
+        list.sort(sort.order);
+        return list;
+    }
+
+    private static Row row(UUID id, String name, long until) {
+        return new Row(id, name == null ? "?" : name, until);
+    }
+}
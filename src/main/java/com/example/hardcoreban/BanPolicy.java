@@ -0,0 +1,171 @@
+package com.example.hardcoreban;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * How long a death ban lasts, compiled from config.json once and swapped whole when the config changes.
+ *
+ * A base duration plus optional escalation tiers ("the 2nd death within 30d gets 3d, the 3rd gets 7d").
+ * Compiling unrolls the tiers into a table indexed by deaths-in-window, so the per-death cost is one
+ * array read: no string parsing on the death path.
+ */
+final class BanPolicy {
+
+    /** Accepted duration strings: 15s, 3m, 24h, 7d, 5y3d9h3m8s (and their total must be above zero). */
+    static final Pattern DURATION = Pattern.compile("(?i)\\d+[smhdy](\\d+[smhdy])*");
+
+    private static final long FALLBACK_MS = 24L * 60L * 60L * 1000L;
+    private static final String FALLBACK_TEXT = "24h";
+    private static final int MAX_TIER_DEATHS = 1000;
+
+    record Tier(int deaths, String duration) {}
+
+    private final String base;
+    private final String window;
+    private final List<Tier> tiers;
+    private final List<String> problems;
+
+    private final long windowMs;
+    private final long[] msByDeaths;       // [deaths in window], last entry applies to anything above
+    private final String[] textByDeaths;   // same, as the duration string (for enforcement=command)
+
+    private BanPolicy(String base, String window, List<Tier> tiers, List<String> problems, long windowMs, long[] ms, String[] text) {
+        this.base = base;
+        this.window = window;
+        this.tiers = tiers;
+        this.problems = problems;
+        this.windowMs = windowMs;
+        this.msByDeaths = ms;
+        this.textByDeaths = text;
+    }
+
+    /**
+     * A duration string a ban can use: well-formed and longer than zero ("0s" would expire as it is written).
+     */
+    static boolean isValidDuration(String s) {
+        return s != null && DURATION.matcher(s).matches() && BanDurations.parseToMillis(s) > 0L;
+    }
+
+    /**
+     * Invalid base falls back to 24h, invalid tiers are skipped. Each of these is logged and listed in
+     * {@link #problems()}; {@link #base()} is what is actually used, so saving it writes the fallback.
+     */
+    static BanPolicy compile(String base, String window, List<Tier> tiers) {
+        List<String> problems = new ArrayList<>();
+        long baseMs = BanDurations.parseToMillis(base);
+        String baseText = base;
+        if (!isValidDuration(base)) {
+            problems.add("invalid ban duration '" + base + "', using " + FALLBACK_TEXT);
+            baseMs = FALLBACK_MS;
+            baseText = FALLBACK_TEXT;
+        }
+
+        List<Tier> valid = new ArrayList<>();
+        if (tiers != null) {
+            for (Tier t : tiers) {
+                if (t == null || t.deaths() < 2 || t.deaths() > MAX_TIER_DEATHS || !isValidDuration(t.duration())) {
+                    problems.add("ignoring escalation tier " + t
+                            + " (needs deaths 2.." + MAX_TIER_DEATHS + " and a duration like 3d)");
+                    continue;
+                }
+                valid.add(t);
+            }
+        }
+        valid.sort(Comparator.comparingInt(Tier::deaths));
+
+        long windowMs = valid.isEmpty() ? 0L : BanDurations.parseToMillis(window);
+        if (!valid.isEmpty() && windowMs <= 0L) {
+            problems.add("invalid escalation window '" + window + "', escalation disabled");
+            valid.clear();
+            windowMs = 0L;
+        }
+        for (String p : problems) HbLog.warn("Ban policy: " + p);
+
+        int top = valid.isEmpty() ? 1 : valid.get(valid.size() - 1).deaths();
+        long[] ms = new long[top + 1];
+        String[] text = new String[top + 1];
+        long curMs = baseMs;
+        String curText = baseText;
+        int next = 0;
+        for (int deaths = 0; deaths <= top; deaths++) {
+            while (next < valid.size() && valid.get(next).deaths() == deaths) {
+                curText = valid.get(next).duration();
+                curMs = BanDurations.parseToMillis(curText);
+                next++;
+            }
+            ms[deaths] = curMs;
+            text[deaths] = curText;
+        }
+
+        return new BanPolicy(baseText, window, List.copyOf(valid), List.copyOf(problems), windowMs, ms, text);
+    }
+
+    BanPolicy withBase(String newBase) {
+        return compile(newBase, window, tiers);
+    }
+
+    boolean escalates() {
+        return windowMs > 0L;
+    }
+
+    /**
+     * Window the death counters count in, 0 when there is no escalation.
+     */
+    long windowMs() {
+        return windowMs;
+    }
+
+    long durationMs(int deathsInWindow) {
+        return msByDeaths[Math.min(Math.max(deathsInWindow, 0), msByDeaths.length - 1)];
+    }
+
+    String durationText(int deathsInWindow) {
+        return textByDeaths[Math.min(Math.max(deathsInWindow, 0), textByDeaths.length - 1)];
+    }
+
+    String base() {
+        return base;
+    }
+
+    String window() {
+        return window;
+    }
+
+    List<Tier> tiers() {
+        return tiers;
+    }
+
+    /**
+     * What compile had to fall back on or skip, empty when the config was used as written.
+     */
+    List<String> problems() {
+        return problems;
+    }
+
+    /**
+     * "36h" or "36h, 2nd death in 30d: 3d, 3rd: 7d".
+     */
+    String describe() {
+        if (!escalates()) return textByDeaths[1];
+        StringBuilder sb = new StringBuilder(textByDeaths[1]);
+        for (int i = 0; i < tiers.size(); i++) {
+            Tier t = tiers.get(i);
+            sb.append(", ").append(ordinal(t.deaths())).append(i == 0 ? " death in " + window : "").append(": ").append(t.duration());
+        }
+        return sb.toString();
+    }
+
+    private static String ordinal(int n) {
+        int mod100 = n % 100;
+        if (mod100 >= 11 && mod100 <= 13) return n + "th";
+        return switch (n % 10) {
+            case 1 -> n + "st";
+            case 2 -> n + "nd";
+            case 3 -> n + "rd";
+            default -> n + "th";
+        };
+    }
+}
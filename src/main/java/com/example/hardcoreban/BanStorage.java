@@ -0,0 +1,78 @@
+package com.example.hardcoreban;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Where the banned store, the pending totem pops and the death history are kept (config.storage).
+ *
+ * The live banned store stays in memory ({@link BanStore}) for logins, expiry and the revive menu; a backend
+ * fills it once at startup and is then handed every change as the same records the journal uses.
+ * Death history is only queried, never loaded whole.
+ *
+ * <ul>
+ *   <li>{@link FileBanStorage}: banned.json / banned.bin + store.journal + deaths/ (default)</li>
+ *   <li>{@link JdbcBanStorage}: an embedded H2 database</li>
+ * </ul>
+ */
+interface BanStorage {
+
+    /**
+     * One death: cause is the death message, dimension an id like "minecraft:overworld" (null if unknown).
+     */
+    record Death(UUID id, String name, String cause, String dimension, int x, int y, int z, long atMs, long banMs) {}
+
+    /**
+     * Startup: loads what is persisted into the live collections. The backend may keep them to take snapshots from.
+     */
+    void open(BanStore bans, Set<String> pendingPops) throws IOException;
+
+    /**
+     * One transaction. Any thread; the I/O happens on the backend's own thread.
+     */
+    void append(List<StoreJournal.Record> txn);
+
+    default void append(StoreJournal.Record... txn) {
+        if (txn.length > 0) append(List.of(txn));
+    }
+
+    /**
+     * Runs {@code change} (the in-memory side of {@code txn}) and appends {@code txn} so that no snapshot
+     * the backend takes meanwhile can contain the one without the other. For writers off the server thread.
+     */
+    void applyAndAppend(Runnable change, StoreJournal.Record... txn);
+
+    void recordDeath(Death death);
+
+    /**
+     * Newest first, at most {@code limit}. Blocks on I/O: never call it on the server thread.
+     */
+    List<Death> history(UUID id, int limit) throws IOException;
+
+    /**
+     * Server thread, once per tick: housekeeping such as compaction.
+     */
+    void maintain();
+
+    /**
+     * Changes accepted but not yet folded into a snapshot (file) or committed (database).
+     */
+    int backlog();
+
+    /**
+     * Blocks until everything appended so far is durable (startup migration, server stop).
+     */
+    void flush();
+
+    /**
+     * Server stop: flushes, then lets go of what the backend holds open (connections, threads). Using the
+     * backend again afterwards reopens them (a singleplayer host starting another world in the same JVM).
+     */
+    default void close() {
+        flush();
+    }
+
+    String describe();
+}
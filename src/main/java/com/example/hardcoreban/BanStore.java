@@ -0,0 +1,244 @@
+package com.example.hardcoreban;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The banned store, safe to read and write from any thread.
+ *
+ * Entries are split by UUID hash over 16 {@link BanTable} stripes, each guarded by its own monitor, so
+ * writers for different players rarely meet and a point lookup holds one uncontended lock for a probe.
+ * {@link #snapshot()} hands out an immutable view for iteration (GUI, pruning, persistence). It is
+ * cached until the next write, and a write only makes its own stripe get re-copied, so readers never
+ * copy the whole store and never see it change under them. The last {@value #LOG_SIZE} writes are kept by
+ * version, so a view derived from an older snapshot can apply just those instead of rescanning.
+ */
+final class BanStore {
+
+    private static final int STRIPES = 16;
+    private static final int LOG_SIZE = 1024; // power of two
+
+    private record Change(long version, UUID id) {}
+
+    private static final class Stripe {
+        final BanTable table = new BanTable();
+        BanTable frozen; // immutable copy of table, null once table changed (guarded by this)
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    // ring of recent writes, slot = version & (LOG_SIZE - 1); set under the stripe lock of the write
+    private final AtomicReferenceArray<Change> log = new AtomicReferenceArray<>(LOG_SIZE);
+
+    private volatile Snapshot cached;
+
+    BanStore() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    long get(UUID id, long absent) {
+        Stripe s = stripeOf(id);
+        synchronized (s) {
+            return s.table.get(id, absent);
+        }
+    }
+
+    String nameOf(UUID id) {
+        Stripe s = stripeOf(id);
+        synchronized (s) {
+            return s.table.nameOf(id);
+        }
+    }
+
+    boolean contains(UUID id) {
+        Stripe s = stripeOf(id);
+        synchronized (s) {
+            return s.table.contains(id);
+        }
+    }
+
+    void put(UUID id, String name, long untilMs) {
+        Stripe s = stripeOf(id);
+        synchronized (s) {
+            int before = s.table.size();
+            s.table.put(id, name, untilMs);
+            size.addAndGet(s.table.size() - before);
+            s.frozen = null;
+            logWrite(id);
+        }
+    }
+
+    boolean remove(UUID id) {
+        Stripe s = stripeOf(id);
+        synchronized (s) {
+            if (!s.table.remove(id)) return false;
+            size.decrementAndGet();
+            s.frozen = null;
+            logWrite(id);
+            return true;
+        }
+    }
+
+    /**
+     * Replaces the whole store (startup load). Not atomic with respect to concurrent writers.
+     */
+    void replaceAll(BanEntries entries) {
+        clear();
+        entries.forEach((hi, lo, name, until) -> put(new UUID(hi, lo), name, until));
+    }
+
+    /**
+     * Empties the store, for a loader that then fills it with {@link #put}. Not atomic with respect to concurrent writers.
+     */
+    void clear() {
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                size.addAndGet(-s.table.size());
+                s.table.clear();
+                s.frozen = null;
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    UUID findByName(String name) {
+        return snapshot().findByName(name);
+    }
+
+    /**
+     * Immutable view of the store as of this call; the same instance until the next write.
+     */
+    Snapshot snapshot() {
+        long v = version.get();
+        Snapshot snap = cached;
+        if (snap != null && snap.version == v) return snap;
+
+        BanTable[] tables = new BanTable[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe s = stripes[i];
+            synchronized (s) {
+                if (s.frozen == null) s.frozen = s.table.copy();
+                tables[i] = s.frozen;
+            }
+        }
+        // stamped with the version read first: a write racing with the copy makes the next call rebuild
+        snap = new Snapshot(this, tables, v);
+        cached = snap;
+        return snap;
+    }
+
+    private void logWrite(UUID id) {
+        long v = version.incrementAndGet();
+        log.set((int) (v & (LOG_SIZE - 1)), new Change(v, id));
+    }
+
+    /**
+     * Ids written after {@code from} up to {@code to}, or null if the log no longer covers that range
+     * (too many writes, or a {@link #clear()}). An id may appear more than once.
+     */
+    private List<UUID> changes(long from, long to) {
+        if (from > to || to - from > LOG_SIZE) return null;
+
+        List<UUID> ids = new ArrayList<>((int) (to - from));
+        for (long v = from + 1; v <= to; v++) {
+            Change c = log.get((int) (v & (LOG_SIZE - 1)));
+            if (c == null || c.version() != v) return null;
+            ids.add(c.id());
+        }
+        return ids;
+    }
+
+    private Stripe stripeOf(UUID id) {
+        return stripes[stripeIndex(id.getMostSignificantBits(), id.getLeastSignificantBits())];
+    }
+
+    private static int stripeIndex(long hi, long lo) {
+        return (Long.hashCode(hi ^ lo) * 0x9e3779b9) >>> 28;
+    }
+
+    /**
+     * Point-in-time view over the frozen stripe copies. Never changes; safe to share between threads.
+     */
+    static final class Snapshot implements BanEntries {
+
+        private final BanStore store;
+        private final BanTable[] tables;
+        private final long version;
+        private final int size;
+
+        private Snapshot(BanStore store, BanTable[] tables, long version) {
+            this.store = store;
+            this.tables = tables;
+            this.version = version;
+            int n = 0;
+            for (BanTable t : tables) n += t.size();
+            this.size = n;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public List<UUID> changedSince(long version) {
+            return store.changes(version, this.version);
+        }
+
+        @Override
+        public long get(UUID id, long absent) {
+            return tableOf(id).get(id, absent);
+        }
+
+        @Override
+        public String nameOf(UUID id) {
+            return tableOf(id).nameOf(id);
+        }
+
+        @Override
+        public boolean contains(UUID id) {
+            return tableOf(id).contains(id);
+        }
+
+        @Override
+        public UUID findByName(String name) {
+            for (BanTable t : tables) {
+                UUID id = t.findByName(name);
+                if (id != null) return id;
+            }
+            return null;
+        }
+
+        @Override
+        public void forEach(BanTable.Visitor visitor) {
+            for (BanTable t : tables) t.forEach(visitor);
+        }
+
+        private BanTable tableOf(UUID id) {
+            return tables[stripeIndex(id.getMostSignificantBits(), id.getLeastSignificantBits())];
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.hardcoreban;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Banned store: UUID -> untilEpochMs, plus the last known name for display.
+ *
+ * Open-addressed (linear probing, backward-shift deletion) over parallel primitive arrays, so an entry
+ * costs two longs for the key, one long for the expiry and one name reference; no boxing and no per-entry
+ * node. Lookups do not allocate. The nil UUID marks an empty slot and can never be stored.
+ * Not thread-safe; {@link BanStore} stripes these behind locks.
+ */
+final class BanTable implements BanEntries {
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long msb, long lsb, String name, long untilMs);
+    }
+
+    private static final float MAX_LOAD = 0.6f;
+
+    private long[] msb;
+    private long[] lsb;
+    private long[] until;
+    private String[] names;
+    private int mask;
+    private int size;
+    private long version;
+
+    BanTable() {
+        this(64);
+    }
+
+    BanTable(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, (int) (expected / MAX_LOAD)) - 1) << 1;
+        allocate(cap);
+    }
+
+    private BanTable(BanTable src) {
+        msb = src.msb.clone();
+        lsb = src.lsb.clone();
+        until = src.until.clone();
+        names = src.names.clone();
+        mask = src.mask;
+        size = src.size;
+        version = src.version;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Bumped on every change; lets readers cache derived views until the store moves on.
+     */
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public boolean contains(UUID id) {
+        return indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Expiry for {@code id}, or {@code absent} if it is not banned.
+     */
+    @Override
+    public long get(UUID id, long absent) {
+        int i = indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return i < 0 ? absent : until[i];
+    }
+
+    @Override
+    public String nameOf(UUID id) {
+        int i = indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return i < 0 ? null : names[i];
+    }
+
+    void put(UUID id, String name, long untilMs) {
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        if ((hi | lo) == 0L) throw new IllegalArgumentException("nil UUID");
+        version++;
+
+        int i = slot(hi, lo);
+        while (msb[i] != 0L || lsb[i] != 0L) {
+            if (msb[i] == hi && lsb[i] == lo) {
+                until[i] = untilMs;
+                if (name != null) names[i] = name;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        msb[i] = hi;
+        lsb[i] = lo;
+        until[i] = untilMs;
+        names[i] = name;
+        if (++size > (mask + 1) * MAX_LOAD) resize((mask + 1) << 1);
+    }
+
+    boolean remove(UUID id) {
+        int i = indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (i < 0) return false;
+        version++;
+
+        // backward-shift: pull later members of the probe run into the hole so no tombstones are needed
+        int hole = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (msb[j] == 0L && lsb[j] == 0L) break;
+            int home = slot(msb[j], lsb[j]);
+            boolean movable = (j > hole) ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                msb[hole] = msb[j];
+                lsb[hole] = lsb[j];
+                until[hole] = until[j];
+                names[hole] = names[j];
+                hole = j;
+            }
+        }
+
+        msb[hole] = 0L;
+        lsb[hole] = 0L;
+        until[hole] = 0L;
+        names[hole] = null;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(msb, 0L);
+        Arrays.fill(lsb, 0L);
+        Arrays.fill(until, 0L);
+        Arrays.fill(names, null);
+        size = 0;
+        version++;
+    }
+
+    /**
+     * Linear scan by display name (case-insensitive). Only for admin commands typing a name nobody has seen.
+     */
+    @Override
+    public UUID findByName(String name) {
+        for (int i = 0; i <= mask; i++) {
+            if ((msb[i] != 0L || lsb[i] != 0L) && name.equalsIgnoreCase(names[i])) {
+                return new UUID(msb[i], lsb[i]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i <= mask; i++) {
+            if (msb[i] != 0L || lsb[i] != 0L) visitor.visit(msb[i], lsb[i], names[i], until[i]);
+        }
+    }
+
+    /**
+     * Detached copy (four array clones) for handing to another thread.
+     */
+    BanTable copy() {
+        return new BanTable(this);
+    }
+
+    private int indexOf(long hi, long lo) {
+        if ((hi | lo) == 0L) return -1;
+        int i = slot(hi, lo);
+        while (msb[i] != 0L || lsb[i] != 0L) {
+            if (msb[i] == hi && lsb[i] == lo) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long hi, long lo) {
+        long h = hi ^ lo;
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) h & mask;
+    }
+
+    private void allocate(int cap) {
+        msb = new long[cap];
+        lsb = new long[cap];
+        until = new long[cap];
+        names = new String[cap];
+        mask = cap - 1;
+    }
+
+    private void resize(int cap) {
+        long[] oldMsb = msb, oldLsb = lsb, oldUntil = until;
+        String[] oldNames = names;
+        allocate(cap);
+        size = 0;
+        for (int i = 0; i < oldMsb.length; i++) {
+            if (oldMsb[i] != 0L || oldLsb[i] != 0L) {
+                int j = slot(oldMsb[i], oldLsb[i]);
+                while (msb[j] != 0L || lsb[j] != 0L) j = (j + 1) & mask;
+                msb[j] = oldMsb[i];
+                lsb[j] = oldLsb[i];
+                until[j] = oldUntil[i];
+                names[j] = oldNames[i];
+                size++;
+            }
+        }
+    }
+}
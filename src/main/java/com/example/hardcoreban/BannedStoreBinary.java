@@ -0,0 +1,125 @@
+package com.example.hardcoreban;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * banned.bin: the banned store as fixed-width records, for storeFormat = "binary" in config.json.
+ *
+ * <pre>
+ * header  (24 bytes)  magic "HCBN", version (short), flags (short), count (int), namesLength (int), crc32 (int), reserved (int)
+ * records (32 bytes)  uuidMsb (long), uuidLsb (long), untilMs (long), nameOffset (int), nameLength (int, -1 = no name)
+ * names               UTF-8 bytes, addressed by the records
+ * </pre>
+ *
+ * Big-endian. The CRC32 covers everything after the header. Reads map the file and decode records in
+ * place; a wrong magic, version, length or checksum fails the load instead of returning partial data.
+ */
+final class BannedStoreBinary {
+
+    private static final int MAGIC = 0x4843424E; // "HCBN"
+    private static final short VERSION = 1;
+    static final int HEADER = 24;
+    static final int RECORD = 32;
+
+    private BannedStoreBinary() {}
+
+    static void write(BanEntries entries, Path file) throws IOException {
+        int count = entries.size();
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD);
+        ByteArrayOutputStream names = new ByteArrayOutputStream(count * 12);
+
+        entries.forEach((hi, lo, name, until) -> {
+            records.putLong(hi).putLong(lo).putLong(until);
+            if (name == null) {
+                records.putInt(0).putInt(-1);
+            } else {
+                byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                records.putInt(names.size()).putInt(utf8.length);
+                names.writeBytes(utf8);
+            }
+        });
+        records.flip();
+        ByteBuffer nameBytes = ByteBuffer.wrap(names.toByteArray());
+
+        CRC32 crc = new CRC32();
+        crc.update(records.duplicate());
+        crc.update(nameBytes.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putInt(count)
+                .putInt(nameBytes.remaining())
+                .putInt((int) crc.getValue())
+                .putInt(0)
+                .flip();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, records, nameBytes};
+            while (header.hasRemaining() || records.hasRemaining() || nameBytes.hasRemaining()) ch.write(parts);
+            ch.force(false);
+        }
+    }
+
+    /**
+     * Puts the file's records into {@code into} and their names into {@code names}, leaving out bans that
+     * ran out before {@code nowMs}. The whole file is verified before the first record is handed over.
+     */
+    static BannedStoreCodec.Loaded read(Path file, BannedStoreCodec.Sink into, PlayerNames names, long nowMs) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = ch.size();
+            if (length < HEADER) throw new IOException("Truncated header in " + file);
+
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buf.getInt(0) != MAGIC) throw new IOException("Not a HardcoreBan store: " + file);
+            if (buf.getShort(4) != VERSION) throw new IOException("Unsupported store version " + buf.getShort(4) + " in " + file);
+
+            int count = buf.getInt(8);
+            int namesLength = buf.getInt(12);
+            int expectedCrc = buf.getInt(16);
+            if (count < 0 || namesLength < 0 || length != HEADER + (long) count * RECORD + namesLength) {
+                throw new IOException("Length mismatch in " + file);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER, (int) (length - HEADER)));
+            if ((int) crc.getValue() != expectedCrc) throw new IOException("Checksum mismatch in " + file);
+
+            int namesBase = HEADER + count * RECORD;
+            int expired = 0;
+            for (int i = 0, off = HEADER; i < count; i++, off += RECORD) {
+                long hi = buf.getLong(off);
+                long lo = buf.getLong(off + 8);
+                long until = buf.getLong(off + 16);
+                int nameOffset = buf.getInt(off + 24);
+                int nameLength = buf.getInt(off + 28);
+                if (BannedStoreCodec.expired(until, nowMs)) {
+                    expired++;
+                    continue;
+                }
+
+                String name = null;
+                if (nameLength >= 0) {
+                    byte[] utf8 = new byte[nameLength];
+                    buf.get(namesBase + nameOffset, utf8);
+                    name = new String(utf8, StandardCharsets.UTF_8);
+                }
+                UUID id = new UUID(hi, lo);
+                into.put(id, name, until);
+                names.remember(id, name);
+            }
+            return new BannedStoreCodec.Loaded(count - expired, expired, 0);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.hardcoreban;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.UUID;
+
+/**
+ * banned.json layout: {@code {"<uuid>": {"name": "...", "until": epochMs}}}.
+ * The pre-UUID layout ({@code {"<name>": epochMs}}) is still read and resolved through {@link PlayerNames}.
+ */
+final class BannedStoreCodec {
+
+    /**
+     * Where a loader puts what it reads ({@link BanStore#put}, {@link BanTable#put}).
+     */
+    interface Sink {
+        void put(UUID id, String name, long untilMs);
+    }
+
+    /**
+     * What a load kept and skipped: {@code legacy} entries were in the pre-UUID layout (expired or not).
+     */
+    record Loaded(int entries, int expired, int legacy) {}
+
+    private BannedStoreCodec() {}
+
+    static JsonObject toJson(BanEntries table) {
+        JsonObject root = new JsonObject();
+        table.forEach((hi, lo, name, until) -> {
+            JsonObject o = new JsonObject();
+            o.addProperty("name", name);
+            o.addProperty("until", until);
+            root.add(new UUID(hi, lo).toString(), o);
+        });
+        return root;
+    }
+
+    /**
+     * A ban that ran out at or before {@code nowMs} (0 never runs out).
+     */
+    static boolean expired(long untilMs, long nowMs) {
+        return untilMs != 0L && untilMs <= nowMs;
+    }
+
+    /**
+     * Streams banned.json into {@code into} entry by entry, with no tree or map in between, and leaves out
+     * bans that ran out before {@code nowMs}. An empty file reads as an empty store.
+     */
+    static Loaded read(Reader in, Sink into, PlayerNames names, long nowMs) throws IOException {
+        int entries = 0;
+        int expired = 0;
+        int legacy = 0;
+
+        JsonReader r = new JsonReader(in);
+        try {
+            r.peek();
+        } catch (EOFException empty) {
+            return new Loaded(0, 0, 0);
+        }
+        if (r.peek() == JsonToken.NULL) {
+            r.nextNull();
+            return new Loaded(0, 0, 0);
+        }
+
+        r.beginObject();
+        while (r.hasNext()) {
+            String key = r.nextName();
+            if (r.peek() == JsonToken.BEGIN_OBJECT) {
+                String name = null;
+                long until = 0L;
+                r.beginObject();
+                while (r.hasNext()) {
+                    String field = r.nextName();
+                    if (r.peek() == JsonToken.NULL) {
+                        r.nextNull();
+                    } else if (field.equals("name")) {
+                        name = r.nextString();
+                    } else if (field.equals("until")) {
+                        until = r.nextLong();
+                    } else {
+                        r.skipValue();
+                    }
+                }
+                r.endObject();
+
+                if (expired(until, nowMs)) {
+                    expired++;
+                    continue;
+                }
+                UUID id = UUID.fromString(key);
+                into.put(id, name, until);
+                names.remember(id, name);
+            } else {
+                // pre-UUID format: name -> untilMs
+                long until = 0L;
+                if (r.peek() == JsonToken.NULL) {
+                    r.nextNull();
+                } else {
+                    until = r.nextLong();
+                }
+                legacy++;
+                if (expired(until, nowMs)) {
+                    expired++;
+                    continue;
+                }
+                into.put(names.resolve(key), key, until);
+            }
+            entries++;
+        }
+        r.endObject();
+        return new Loaded(entries, expired, legacy);
+    }
+}
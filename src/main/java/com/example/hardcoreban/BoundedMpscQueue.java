@@ -0,0 +1,70 @@
+package com.example.hardcoreban;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring for many producers and one consumer.
+ *
+ * A producer claims a slot with one CAS on the tail and publishes into it; the consumer reads slots in
+ * order and frees each one before moving the head. No lock and no allocation per element. A slot that
+ * was claimed but not yet filled reads as empty, so the consumer simply picks it up on its next poll.
+ */
+final class BoundedMpscQueue<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();    // written by the consumer only
+
+    /**
+     * Capacity is rounded up to a power of two.
+     */
+    BoundedMpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Any thread. False when the queue is full.
+     */
+    boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= slots.length()) return false;
+        } while (!tail.compareAndSet(t, t + 1));
+        slots.lazySet((int) t & mask, e);
+        return true;
+    }
+
+    /**
+     * Consumer thread only. Null when empty (or the next element is still being published).
+     */
+    E poll() {
+        long h = head.get();
+        int i = (int) h & mask;
+        E e = slots.get(i);
+        if (e == null) return null;
+        slots.lazySet(i, null);
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Any thread; approximate while producers are active.
+     */
+    int size() {
+        return (int) Math.max(0L, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
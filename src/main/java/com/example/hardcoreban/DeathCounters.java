@@ -0,0 +1,72 @@
+package com.example.hardcoreban;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player death counts for ban escalation (see {@link BanPolicy}).
+ *
+ * One long per player in a {@link BanTable} (no boxing): the start of the player's current window in
+ * epoch seconds, shifted left 20 bits, plus the number of deaths since. A death after the window has run
+ * out starts a new one. Thread-safe (deaths can be queued from any thread).
+ */
+final class DeathCounters {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final BanTable counts = new BanTable();
+
+    /**
+     * Counts a death at {@code now} and returns the deaths in the player's current window, this one included.
+     */
+    synchronized int record(UUID id, long now, long windowMs) {
+        long packed = counts.get(id, 0L);
+        long startMs = (packed >>> COUNT_BITS) * 1000L;
+        long count = packed & COUNT_MASK;
+
+        if (packed == 0L || now - startMs > windowMs) {
+            startMs = now;
+            count = 0L;
+        }
+        if (count < COUNT_MASK) count++;
+
+        counts.put(id, null, ((startMs / 1000L) << COUNT_BITS) | count);
+        return (int) count;
+    }
+
+    synchronized BanTable copy() {
+        return counts.copy();
+    }
+
+    /**
+     * {"uuid": [windowStartMs, deaths]}, dropping windows that ran out before {@code now}.
+     */
+    static JsonObject toJson(BanTable snapshot, long now, long windowMs) {
+        JsonObject root = new JsonObject();
+        snapshot.forEach((hi, lo, name, packed) -> {
+            long startMs = (packed >>> COUNT_BITS) * 1000L;
+            if (now - startMs > windowMs) return;
+            JsonArray a = new JsonArray(2);
+            a.add(startMs);
+            a.add(packed & COUNT_MASK);
+            root.add(new UUID(hi, lo).toString(), a);
+        });
+        return root;
+    }
+
+    synchronized void load(JsonObject root) {
+        counts.clear();
+        if (root == null) return;
+        for (Map.Entry<String, JsonElement> e : root.entrySet()) {
+            JsonArray a = e.getValue().getAsJsonArray();
+            long startMs = a.get(0).getAsLong();
+            long count = Math.min(a.get(1).getAsLong(), COUNT_MASK);
+            counts.put(UUID.fromString(e.getKey()), null, ((startMs / 1000L) << COUNT_BITS) | count);
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Death history for the file backend: gzip-compressed NDJSON in config/HardcoreBan/deaths/.
+ *
+ * Deaths are queued by any thread and written by the {@link PersistenceThread}: everything queued since
+ * the last write becomes one gzip member appended to the current segment (deaths-NNNNN.ndjson.gz;
+ * concatenated members are a valid gzip file, so {@code zcat} reads a whole segment). Segments roll
+ * over at {@link #SEGMENT_BYTES}, and only the newest {@link #KEEP_SEGMENTS} are kept.
+ *
+ * index.bin holds one 32-byte record per (player, member): uuid, member offset, segment, member length.
+ * It is loaded into a per-player list at startup, so a player's history is a few seeks and small
+ * decompressions, never a scan. Index records are written before their member; on startup index.bin is
+ * rewritten without any record whose member is missing, and members the index does not fully cover are
+ * cut off, which is at most the batch being written during a crash. When segments are rotated away
+ * their records are dropped from index.bin and from memory.
+ */
+final class DeathLog {
+
+    static final long SEGMENT_BYTES = 8L * 1024L * 1024L;
+    static final int KEEP_SEGMENTS = 16;
+    private static final int INDEX_RECORD = 32;
+    private static final String PREFIX = "deaths-";
+    private static final String SUFFIX = ".ndjson.gz";
+    private static final Gson LINE_GSON = new Gson();
+
+    // where one player's deaths are: pairs of (segment << 40 | offset, length), oldest first
+    private static final class Refs {
+        private long[] refs = new long[4];
+        private int size;
+
+        synchronized void add(long where, long length) {
+            if (size + 2 > refs.length) refs = Arrays.copyOf(refs, refs.length * 2);
+            refs[size++] = where;
+            refs[size++] = length;
+        }
+
+        synchronized long[] copy() {
+            return Arrays.copyOf(refs, size);
+        }
+
+        // forgets the refs into segments below seg (the oldest ones); true if none are left
+        synchronized boolean dropBefore(int seg) {
+            int from = 0;
+            while (from < size && (int) (refs[from] >>> 40) < seg) from += 2;
+            if (from > 0) {
+                System.arraycopy(refs, from, refs, 0, size - from);
+                size -= from;
+            }
+            return size == 0;
+        }
+    }
+
+    private final Path dir;
+    private final Path indexPath;
+    private final Map<UUID, Refs> index = new ConcurrentHashMap<>();
+    private final Queue<BanStorage.Death> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+    // I/O thread only (after open)
+    private int segment;
+    private long segmentSize;
+    private volatile int oldestSegment;
+
+    DeathLog(Path dir) {
+        this.dir = dir;
+        this.indexPath = dir.resolve("index.bin");
+    }
+
+    /**
+     * Startup: loads the index and repairs the newest segment after a crash.
+     */
+    void open() throws IOException {
+        Files.createDirectories(dir);
+
+        TreeSet<Integer> segments = listSegments();
+        segment = segments.isEmpty() ? 0 : segments.last();
+        oldestSegment = segments.isEmpty() ? 0 : segments.first();
+        Path current = segmentPath(segment);
+        long onDisk = Files.exists(current) ? Files.size(current) : 0L;
+        int newest = segment;
+        int oldest = oldestSegment;
+        // written ahead of their member: the ones whose member never made it are dropped, as are the
+        // ones left over from a rotation that was cut short
+        RecordFilter valid = (seg, offset, length) ->
+                seg >= oldest && seg <= newest && (seg < newest || offset + length <= onDisk);
+        long currentSize = onDisk;
+        long coveredEnd = 0L;
+
+        if (Files.exists(indexPath)) {
+            long skipped = 0L;
+            long indexSize;
+            try (FileChannel ch = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                indexSize = ch.size();
+                ByteBuffer buf = ByteBuffer.allocate(INDEX_RECORD * 1024);
+                while (ch.read(buf) > 0) {
+                    buf.flip();
+                    while (buf.remaining() >= INDEX_RECORD) {
+                        long hi = buf.getLong();
+                        long lo = buf.getLong();
+                        long offset = buf.getLong();
+                        int seg = buf.getInt();
+                        int length = buf.getInt();
+
+                        if (!valid.keep(seg, offset, length)) {
+                            skipped++;
+                            continue;
+                        }
+                        if (seg == segment) coveredEnd = Math.max(coveredEnd, offset + length);
+                        index.computeIfAbsent(new UUID(hi, lo), k -> new Refs()).add(pack(seg, offset), length);
+                    }
+                    buf.compact();
+                }
+            }
+            // a later member would reuse the offsets of a dropped one, so the index must not keep any of
+            // them, wherever in the file they are (a torn record at the end goes too)
+            if (skipped > 0L || indexSize % INDEX_RECORD != 0L) {
+                HbLog.debug("Death index: dropping {} records and {} torn bytes", skipped, indexSize % INDEX_RECORD);
+                rewriteIndex(valid);
+            }
+        }
+
+        if (!Files.exists(indexPath) && currentSize > 0L) {
+            // index deleted by hand: keep the old segments for zcat and start a fresh one
+            HbLog.warn("Death history index missing, older deaths will not show in /hardcoreban history");
+            segment++;
+            currentSize = 0L;
+        } else if (currentSize > coveredEnd) {
+            HbLog.warn("Death history: dropping " + (currentSize - coveredEnd)
+                    + " unindexed bytes at the end of " + current.getFileName());
+            try (FileChannel ch = FileChannel.open(current, StandardOpenOption.WRITE)) {
+                ch.truncate(coveredEnd);
+            }
+            currentSize = coveredEnd;
+        }
+        segmentSize = currentSize;
+    }
+
+    int indexedPlayers() {
+        return index.size();
+    }
+
+    /**
+     * Any thread: queues a death for the next background write.
+     */
+    void append(BanStorage.Death death) {
+        queued.add(death);
+        if (writeScheduled.compareAndSet(false, true)) PersistenceThread.execute(this::writeQueued);
+    }
+
+    /**
+     * Newest first, at most {@code limit}. Reads only the members the index lists for this player.
+     */
+    List<BanStorage.Death> history(UUID id, int limit) throws IOException {
+        Refs refs = index.get(id);
+        if (refs == null || limit <= 0) return List.of();
+
+        long[] r = refs.copy();
+        List<BanStorage.Death> out = new ArrayList<>(Math.min(limit, r.length / 2));
+        for (int i = r.length - 2; i >= 0 && out.size() < limit; i -= 2) {
+            int seg = (int) (r[i] >>> 40);
+            if (seg < oldestSegment) break; // rotated away, and everything before it too
+            long offset = r[i] & ((1L << 40) - 1);
+
+            List<BanStorage.Death> member = readMember(seg, offset, (int) r[i + 1], id);
+            for (int j = member.size() - 1; j >= 0 && out.size() < limit; j--) out.add(member.get(j));
+        }
+        return out;
+    }
+
+    /**
+     * Every kept death, oldest first (moving to another backend). Reads whole segments; call it after
+     * {@link #open()} and before anything is appended.
+     */
+    int forEach(Consumer<BanStorage.Death> sink) throws IOException {
+        int n = 0;
+        for (int seg : listSegments()) {
+            if (seg < oldestSegment) continue;
+            // concatenated gzip members read as one stream
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(segmentPath(seg))), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    sink.accept(fromJson(LINE_GSON.fromJson(line, JsonObject.class)));
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    // =========================================================
+    // Writing (I/O thread)
+    // =========================================================
+
+    private void writeQueued() {
+        writeScheduled.set(false);
+
+        List<BanStorage.Death> batch = new ArrayList<>();
+        BanStorage.Death d;
+        while ((d = queued.poll()) != null) batch.add(d);
+        if (batch.isEmpty()) return;
+
+        try {
+            if (segmentSize >= SEGMENT_BYTES) roll();
+
+            byte[] member = compress(batch);
+            Path file = segmentPath(segment);
+            long offset = segmentSize;
+
+            Set<UUID> players = new LinkedHashSet<>();
+            for (BanStorage.Death death : batch) players.add(death.id());
+
+            ByteBuffer records = ByteBuffer.allocate(players.size() * INDEX_RECORD);
+            for (UUID p : players) {
+                records.putLong(p.getMostSignificantBits()).putLong(p.getLeastSignificantBits())
+                        .putLong(offset).putInt(segment).putInt(member.length);
+            }
+            records.flip();
+
+            appendBytes(indexPath, records);
+            appendBytes(file, ByteBuffer.wrap(member));
+            segmentSize += member.length;
+
+            // only now visible to history(): the member is complete on disk
+            for (UUID p : players) index.computeIfAbsent(p, k -> new Refs()).add(pack(segment, offset), member.length);
+        } catch (IOException e) {
+            HbLog.error("Failed to write death history (" + batch.size() + " deaths): " + dir, e);
+        }
+    }
+
+    private void roll() throws IOException {
+        segment++;
+        segmentSize = 0L;
+
+        int oldest = segment - KEEP_SEGMENTS + 1;
+        if (oldest > oldestSegment) {
+            for (int s = oldestSegment; s < oldest; s++) Files.deleteIfExists(segmentPath(s));
+            oldestSegment = oldest;
+            compactIndex();
+        }
+        HbLog.debug("Death history rolled to segment {}", segment);
+    }
+
+    /**
+     * Drops the records of rotated segments from index.bin and from memory.
+     */
+    private void compactIndex() throws IOException {
+        int oldest = oldestSegment;
+        rewriteIndex((seg, offset, length) -> seg >= oldest);
+        index.values().removeIf(refs -> refs.dropBefore(oldest));
+    }
+
+    private interface RecordFilter {
+        boolean keep(int seg, long offset, int length);
+    }
+
+    /**
+     * Rewrites index.bin with only the whole records {@code keep} accepts, through a temp file so a crash
+     * leaves the old index or the new one.
+     */
+    private void rewriteIndex(RecordFilter keep) throws IOException {
+        if (!Files.exists(indexPath)) return;
+        PersistenceThread.writeAtomically(indexPath, tmp -> {
+            try (FileChannel in = FileChannel.open(indexPath, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buf = ByteBuffer.allocate(INDEX_RECORD * 1024);
+                ByteBuffer kept = ByteBuffer.allocate(INDEX_RECORD * 1024);
+                while (in.read(buf) > 0) {
+                    buf.flip();
+                    while (buf.remaining() >= INDEX_RECORD) {
+                        int at = buf.position();
+                        // offset, seg and length sit after hi and lo
+                        if (keep.keep(buf.getInt(at + 24), buf.getLong(at + 16), buf.getInt(at + 28))) {
+                            kept.put(buf.slice(at, INDEX_RECORD));
+                        }
+                        buf.position(at + INDEX_RECORD);
+                    }
+                    buf.compact();
+                    kept.flip();
+                    while (kept.hasRemaining()) out.write(kept);
+                    kept.clear();
+                }
+            }
+        });
+    }
+
+    private static byte[] compress(List<BanStorage.Death> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * batch.size());
+        try (Writer w = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (BanStorage.Death d : batch) {
+                w.write(LINE_GSON.toJson(toJson(d)));
+                w.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void appendBytes(Path file, ByteBuffer data) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (data.hasRemaining()) ch.write(data);
+        }
+    }
+
+    // =========================================================
+    // Reading (any thread)
+    // =========================================================
+
+    private List<BanStorage.Death> readMember(int seg, long offset, int length, UUID id) throws IOException {
+        Path file = segmentPath(seg);
+        byte[] member = new byte[length];
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.wrap(member);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, offset + buf.position()) < 0) throw new IOException("Truncated member in " + file);
+            }
+        } catch (NoSuchFileException e) {
+            return List.of(); // rotated away meanwhile
+        }
+
+        List<BanStorage.Death> out = new ArrayList<>(1);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(member)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                BanStorage.Death d = fromJson(LINE_GSON.fromJson(line, JsonObject.class));
+                if (id.equals(d.id())) out.add(d);
+            }
+        }
+        return out;
+    }
+
+    // =========================================================
+    // Format
+    // =========================================================
+
+    static JsonObject toJson(BanStorage.Death d) {
+        JsonObject o = new JsonObject();
+        o.addProperty("id", d.id().toString());
+        o.addProperty("name", d.name());
+        o.addProperty("cause", d.cause());
+        o.addProperty("dim", d.dimension());
+        o.addProperty("x", d.x());
+        o.addProperty("y", d.y());
+        o.addProperty("z", d.z());
+        o.addProperty("at", d.atMs());
+        o.addProperty("ban", d.banMs());
+        return o;
+    }
+
+    /**
+     * Also reads the flat deaths.ndjson lines written before this log existed ("reason", "until").
+     */
+    static BanStorage.Death fromJson(JsonObject o) {
+        long at = o.get("at").getAsLong();
+        long ban = o.has("ban") ? o.get("ban").getAsLong() : (o.has("until") ? o.get("until").getAsLong() - at : 0L);
+        String cause = o.has("cause") ? str(o, "cause") : str(o, "reason");
+        return new BanStorage.Death(UUID.fromString(o.get("id").getAsString()), str(o, "name"), cause, str(o, "dim"),
+                o.has("x") ? o.get("x").getAsInt() : 0,
+                o.has("y") ? o.get("y").getAsInt() : 0,
+                o.has("z") ? o.get("z").getAsInt() : 0,
+                at, ban);
+    }
+
+    private static String str(JsonObject o, String key) {
+        return o.has(key) && !o.get(key).isJsonNull() ? o.get(key).getAsString() : null;
+    }
+
+    private static long pack(int segment, long offset) {
+        return ((long) segment << 40) | offset;
+    }
+
+    private Path segmentPath(int seg) {
+        return dir.resolve(String.format("%s%05d%s", PREFIX, seg, SUFFIX));
+    }
+
+    private TreeSet<Integer> listSegments() throws IOException {
+        TreeSet<Integer> out = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path f : files) {
+                String n = f.getFileName().toString();
+                try {
+                    out.add(Integer.parseInt(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        return out;
+    }
+}
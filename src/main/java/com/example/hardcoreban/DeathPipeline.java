@@ -0,0 +1,109 @@
+package com.example.hardcoreban;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.text.Text;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deaths on their way from the death hook to a ban.
+ *
+ * The hook only captures an {@link Event} and offers it to a bounded queue; the server thread drains the
+ * queue inside the tick budget and runs each death through the stages in registration order (dedupe,
+ * policy, persist, enforce, broadcast). A stage can drop a death, and each one records its own timer.
+ */
+final class DeathPipeline {
+
+    /**
+     * What the hook saw, nothing resolved yet. {@code killer} is the player who caused the death (null if
+     * none), {@code dimension} is null when unknown (a death queued through the API).
+     */
+    record Event(UUID id, String name, Text message, String killer, RegistryKey<World> dimension, int x, int y, int z,
+                 long atMs, long queuedNanos) {}
+
+    /**
+     * One death going through the stages: each fills in what the later ones need. Server thread only.
+     */
+    static final class Death {
+        final Event event;
+        String cause;
+        String duration;
+        long untilMs;
+
+        Death(Event event) {
+            this.event = event;
+        }
+    }
+
+    interface Stage {
+        /**
+         * False drops the death: the stages after this one never see it.
+         */
+        boolean run(Death death);
+    }
+
+    private record Named(String name, Stage stage, LatencyHistogram timer) {}
+
+    private static final int SLICE = 8;    // deaths processed between deadline checks
+
+    private final BoundedMpscQueue<Event> queue;
+    private final List<Named> stages = new ArrayList<>();
+
+    DeathPipeline(int capacity) {
+        this.queue = new BoundedMpscQueue<>(capacity);
+    }
+
+    /**
+     * Registration order is processing order. Call at startup, before the first death.
+     */
+    void stage(String name, LatencyHistogram timer, Stage stage) {
+        stages.add(new Named(name, stage, timer));
+    }
+
+    /**
+     * Any thread. False when the queue is full; the caller decides where the death goes instead.
+     */
+    boolean offer(Event e) {
+        return queue.offer(e);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * Server thread (a {@link TickScheduler} task). Returns true if deaths are left for the next tick.
+     */
+    boolean drain(long deadlineNanos) {
+        do {
+            for (int i = 0; i < SLICE; i++) {
+                Event e = queue.poll();
+                if (e == null) return false;
+                process(e);
+            }
+        } while (System.nanoTime() < deadlineNanos);
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Server thread: runs one death through every stage now.
+     */
+    void process(Event e) {
+        Death d = new Death(e);
+        for (Named s : stages) {
+            long start = System.nanoTime();
+            boolean keep;
+            try {
+                keep = s.stage().run(d);
+            } catch (Exception ex) {
+                HbLog.error("Death stage '" + s.name() + "' failed for " + e.name(), ex);
+                keep = false;
+            }
+            s.timer().recordSince(start);
+            if (!keep) return;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.hardcoreban;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Death and revive aggregates behind {@code /hardcoreban top} and {@code /hardcoreban stats <player>}.
+ *
+ * Updated once per death (persistDeath) and per revive (reviveSelected), never recomputed from the
+ * history: a player's stats are one hash lookup, and the leaderboards are small top-N lists kept exact
+ * as the counters grow (they only ever go up). Checkpointed to death_stats.json, so startup only reads
+ * the aggregates. Thread-safe; every method is a short critical section.
+ */
+final class DeathStats {
+
+    static final int TOP = 10;
+    private static final int CAUSES_PER_PLAYER = 16;
+
+    record Entry(String key, long count) {}
+
+    record PlayerView(String name, int deaths, long bannedMs, int revivesGiven, int revivesReceived, List<Entry> causes) {}
+
+    private static final class PlayerStats {
+        String name;
+        int deaths;
+        long bannedMs;          // ban time handed out, minus what revives cut short
+        int revivesGiven;
+        int revivesReceived;
+        final Map<String, Integer> causes = new HashMap<>(4);
+    }
+
+    /**
+     * Highest counts, exact as long as counts only increase: anything outside the list is never above its last entry.
+     */
+    private static final class TopN {
+        private final String[] keys = new String[TOP];
+        private final long[] counts = new long[TOP];
+        private int size;
+
+        void offer(String key, long count) {
+            int at = -1;
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) {
+                if (size < TOP) {
+                    at = size++;
+                } else if (count > counts[TOP - 1]) {
+                    at = TOP - 1;
+                } else {
+                    return;
+                }
+                keys[at] = key;
+            }
+            counts[at] = count;
+            while (at > 0 && counts[at - 1] < counts[at]) {
+                String k = keys[at - 1];
+                long c = counts[at - 1];
+                keys[at - 1] = keys[at];
+                counts[at - 1] = counts[at];
+                keys[at] = k;
+                counts[at] = c;
+                at--;
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        List<Entry> entries() {
+            List<Entry> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) out.add(new Entry(keys[i], counts[i]));
+            return out;
+        }
+    }
+
+    private final Map<UUID, PlayerStats> players = new HashMap<>();
+    private final Map<String, Long> causes = new HashMap<>();
+    private final TopN topDeaths = new TopN();      // keys: uuid
+    private final TopN topRevivers = new TopN();    // keys: uuid
+    private final TopN topCauses = new TopN();
+    private long totalDeaths;
+    private long totalRevives;
+
+    /**
+     * The death message without the player's name in front, so "Steve fell from a high place" and "Alex
+     * fell from a high place" count as one cause. When another player ({@code killer}) did it, their name
+     * and whatever follows it (the weapon) become "a player": every PvP death of one kind is one cause.
+     */
+    static String causeKey(String name, String killer, String deathMessage) {
+        if (deathMessage == null || deathMessage.isBlank()) return "died";
+        String key = deathMessage.strip();
+        if (name != null && !name.isEmpty() && key.startsWith(name)) key = key.substring(name.length()).strip();
+        if (killer != null && !killer.isEmpty()) {
+            int at = key.indexOf(killer);
+            if (at >= 0) key = key.substring(0, at) + "a player";
+        }
+        return key.isEmpty() ? "died" : key;
+    }
+
+    /**
+     * {@code killer} is the name of the player who caused the death, null if it was not another player.
+     */
+    synchronized void recordDeath(UUID id, String name, String deathMessage, String killer, long banMs) {
+        PlayerStats p = player(id, name);
+        p.deaths++;
+        p.bannedMs += banMs;
+        totalDeaths++;
+        topDeaths.offer(id.toString(), p.deaths);
+
+        String cause = causeKey(name, killer, deathMessage);
+        if (p.causes.containsKey(cause) || p.causes.size() < CAUSES_PER_PLAYER) p.causes.merge(cause, 1, Integer::sum);
+        long global = causes.merge(cause, 1L, Long::sum);
+        topCauses.offer(cause, global);
+    }
+
+    /**
+     * {@code remainingMs} is what was left of the target's ban; it no longer counts as time banned.
+     * {@code reviver} is null for a revive from the console.
+     */
+    synchronized void recordRevive(UUID reviver, String reviverName, UUID target, String targetName, long remainingMs) {
+        if (reviver != null) {
+            PlayerStats r = player(reviver, reviverName);
+            r.revivesGiven++;
+            topRevivers.offer(reviver.toString(), r.revivesGiven);
+        }
+
+        PlayerStats t = player(target, targetName);
+        t.revivesReceived++;
+        t.bannedMs = Math.max(0L, t.bannedMs - Math.max(0L, remainingMs));
+        totalRevives++;
+    }
+
+    synchronized PlayerView view(UUID id) {
+        PlayerStats p = players.get(id);
+        if (p == null) return null;
+
+        List<Entry> byCount = new ArrayList<>(p.causes.size());
+        p.causes.forEach((k, v) -> byCount.add(new Entry(k, v)));
+        byCount.sort((a, b) -> Long.compare(b.count(), a.count()));
+        return new PlayerView(p.name, p.deaths, p.bannedMs, p.revivesGiven, p.revivesReceived,
+                byCount.subList(0, Math.min(3, byCount.size())));
+    }
+
+    synchronized UUID findByName(String name) {
+        for (Map.Entry<UUID, PlayerStats> e : players.entrySet()) {
+            if (name.equalsIgnoreCase(e.getValue().name)) return e.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Top players by deaths, keyed by name.
+     */
+    synchronized List<Entry> topDeaths() {
+        return named(topDeaths.entries());
+    }
+
+    synchronized List<Entry> topRevivers() {
+        return named(topRevivers.entries());
+    }
+
+    synchronized List<Entry> topCauses() {
+        return topCauses.entries();
+    }
+
+    synchronized long totalDeaths() {
+        return totalDeaths;
+    }
+
+    synchronized long totalRevives() {
+        return totalRevives;
+    }
+
+    private List<Entry> named(List<Entry> byUuid) {
+        List<Entry> out = new ArrayList<>(byUuid.size());
+        for (Entry e : byUuid) {
+            PlayerStats p = players.get(UUID.fromString(e.key()));
+            out.add(new Entry(p == null || p.name == null ? e.key() : p.name, e.count()));
+        }
+        return out;
+    }
+
+    private PlayerStats player(UUID id, String name) {
+        PlayerStats p = players.computeIfAbsent(id, k -> new PlayerStats());
+        if (name != null) p.name = name;
+        return p;
+    }
+
+    // =========================================================
+    // Checkpoint (death_stats.json)
+    // =========================================================
+
+    /**
+     * {"deaths": n, "revives": n, "causes": {...}, "players": {"uuid": {"name", "deaths", "bannedMs", ...}}}
+     */
+    synchronized JsonObject toJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("deaths", totalDeaths);
+        root.addProperty("revives", totalRevives);
+
+        JsonObject c = new JsonObject();
+        causes.forEach(c::addProperty);
+        root.add("causes", c);
+
+        JsonObject ps = new JsonObject();
+        players.forEach((id, p) -> {
+            JsonObject o = new JsonObject();
+            o.addProperty("name", p.name);
+            o.addProperty("deaths", p.deaths);
+            o.addProperty("bannedMs", p.bannedMs);
+            o.addProperty("revivesGiven", p.revivesGiven);
+            o.addProperty("revivesReceived", p.revivesReceived);
+            JsonObject pc = new JsonObject();
+            p.causes.forEach(pc::addProperty);
+            o.add("causes", pc);
+            ps.add(id.toString(), o);
+        });
+        root.add("players", ps);
+        return root;
+    }
+
+    synchronized void load(JsonObject root) {
+        players.clear();
+        causes.clear();
+        topDeaths.clear();
+        topRevivers.clear();
+        topCauses.clear();
+        totalDeaths = 0L;
+        totalRevives = 0L;
+        if (root == null) return;
+
+        if (root.has("deaths")) totalDeaths = root.get("deaths").getAsLong();
+        if (root.has("revives")) totalRevives = root.get("revives").getAsLong();
+
+        if (root.has("causes")) {
+            for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("causes").entrySet()) {
+                long n = e.getValue().getAsLong();
+                causes.put(e.getKey(), n);
+                topCauses.offer(e.getKey(), n);
+            }
+        }
+
+        if (root.has("players")) {
+            for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("players").entrySet()) {
+                JsonObject o = e.getValue().getAsJsonObject();
+                PlayerStats p = new PlayerStats();
+                p.name = o.has("name") && !o.get("name").isJsonNull() ? o.get("name").getAsString() : null;
+                p.deaths = o.get("deaths").getAsInt();
+                p.bannedMs = o.get("bannedMs").getAsLong();
+                p.revivesGiven = o.get("revivesGiven").getAsInt();
+                p.revivesReceived = o.get("revivesReceived").getAsInt();
+                if (o.has("causes")) {
+                    for (Map.Entry<String, JsonElement> c : o.getAsJsonObject("causes").entrySet()) {
+                        p.causes.put(c.getKey(), c.getValue().getAsInt());
+                    }
+                }
+                players.put(UUID.fromString(e.getKey()), p);
+                if (p.deaths > 0) topDeaths.offer(e.getKey(), p.deaths);
+                if (p.revivesGiven > 0) topRevivers.offer(e.getKey(), p.revivesGiven);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.hardcoreban;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Binary min-heap of (untilEpochMs, key), kept next to the banned store.
+ *
+ * Removals and re-bans are not reflected here (lazy deletion): when an entry reaches the top it is
+ * checked against the store's current expiry and silently dropped if it no longer matches.
+ * Finding what expired is O(expired * log n) instead of a scan over every ban.
+ */
+final class ExpiryIndex<K> {
+
+    private long[] until = new long[16];
+    private Object[] keys = new Object[16];
+    private int size = 0;
+
+    void schedule(K key, long untilMs) {
+        if (untilMs <= 0L) return; // 0 = never expires
+        if (size == until.length) {
+            until = Arrays.copyOf(until, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        until[size] = untilMs;
+        keys[size] = key;
+        siftUp(size++);
+    }
+
+    /**
+     * Earliest scheduled expiry, or {@code Long.MAX_VALUE} if nothing is scheduled. May be a stale entry.
+     */
+    long nextExpiry() {
+        return size == 0 ? Long.MAX_VALUE : until[0];
+    }
+
+    /**
+     * Pops every entry due at {@code now}. Keys whose live expiry (from {@code current}, 0 when absent)
+     * still equals the scheduled one are passed to {@code expired}; stale entries are discarded.
+     */
+    void pollExpired(long now, ToLongFunction<K> current, Consumer<K> expired) {
+        pollExpired(now, current, expired, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same, but pops at most {@code max} entries. Returns true if due entries are left for a later call.
+     */
+    boolean pollExpired(long now, ToLongFunction<K> current, Consumer<K> expired, int max) {
+        int popped = 0;
+        while (size > 0 && until[0] <= now) {
+            if (popped++ == max) return true;
+            long due = until[0];
+            K key = popTop();
+            if (current.applyAsLong(key) == due) expired.accept(key);
+        }
+        return false;
+    }
+
+    /**
+     * True once stale entries dominate; the owner should then {@link #clear()} and re-schedule its live entries.
+     */
+    boolean needsRebuild(int liveEntries) {
+        return size > 64 && size > liveEntries * 2;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K popTop() {
+        K top = (K) keys[0];
+        size--;
+        until[0] = until[size];
+        keys[0] = keys[size];
+        keys[size] = null;
+        if (size > 0) siftDown(0);
+        return top;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (until[parent] <= until[i]) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) return;
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && until[right] < until[left]) smallest = right;
+            if (until[i] <= until[smallest]) return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long u = until[a]; until[a] = until[b]; until[b] = u;
+        Object k = keys[a]; keys[a] = keys[b]; keys[b] = k;
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * config.storage = "file": snapshot files plus an append-only journal, all written on the {@link PersistenceThread}.
+ *
+ * Changes go to store.journal; banned.json (or banned.bin, see storeFormat) and pending_revive_pop.json are only
+ * rewritten when the journal is compacted. Deaths go to the {@link DeathLog} in deaths/.
+ * The banned store file may also be edited by hand while the server runs; see {@link #readExternalEdit()}.
+ */
+final class FileBanStorage implements BanStorage {
+
+    private static final int COMPACT_AFTER_RECORDS = 1000;
+    private static final Type STRING_SET_TYPE = new TypeToken<Set<String>>() {}.getType();
+    private static final Gson LINE_GSON = new Gson();
+
+    private final Path dir;
+    private final Gson gson;
+    private final PlayerNames names;
+    private final boolean binary;
+
+    private final Path bannedJsonPath;     // banned.json (uuid -> name + untilMs)
+    private final Path bannedBinPath;      // banned.bin (same, fixed-width records; see BannedStoreBinary)
+    private final Path bannedPath;         // whichever of the two storeFormat selects
+    private final Path pendingPopPath;     // pending_revive_pop.json
+    private final Path legacyDeathsPath;   // deaths.ndjson (flat history before deaths/ existed, imported once)
+    private final DeathLog deaths;
+
+    // mutations are appended to the journal; snapshots are only rewritten on compaction
+    private final StoreJournal journal;
+    private WriteBehindFile<BanEntries> bannedFile;
+    private WriteBehindFile<Set<String>> pendingPopFile;
+
+    // off-thread writers hold this shared while they store + journal; compaction takes it exclusively,
+    // so a record can never be truncated from the journal before a snapshot covers it
+    private final ReentrantReadWriteLock journalOrder = new ReentrantReadWriteLock();
+
+    private BanStore bans;
+    private Set<String> pendingPops;
+
+    FileBanStorage(Path dir, String storeFormat, Gson gson, PlayerNames names) {
+        this.dir = dir;
+        this.gson = gson;
+        this.names = names;
+        this.binary = "binary".equals(storeFormat);
+
+        this.bannedJsonPath = dir.resolve("banned.json");
+        this.bannedBinPath = dir.resolve("banned.bin");
+        this.bannedPath = binary ? bannedBinPath : bannedJsonPath;
+        this.pendingPopPath = dir.resolve("pending_revive_pop.json");
+        this.legacyDeathsPath = dir.resolve("deaths.ndjson");
+        this.deaths = new DeathLog(dir.resolve("deaths"));
+        this.journal = new StoreJournal(dir.resolve("store.journal"));
+    }
+
+    @Override
+    public void open(BanStore bans, Set<String> pendingPops) throws IOException {
+        this.bans = bans;
+        this.pendingPops = pendingPops;
+        this.bannedFile = new WriteBehindFile<>(bannedPath, bans::snapshot, this::writeBannedStore);
+        this.pendingPopFile = new WriteBehindFile<>(pendingPopPath,
+                () -> new LinkedHashSet<>(pendingPops), this::writeJson);
+
+        // independent files, read side by side; the journal then applies on top of both
+        CompletableFuture<Void> pops = CompletableFuture.runAsync(this::loadPendingTotemPop);
+        loadBannedStore();
+        pops.join();
+        replayJournal();
+        deaths.open();
+        importLegacyDeaths();
+    }
+
+    /**
+     * Whether there is a banned store, pending pop file or death history to import from.
+     */
+    boolean hasData() {
+        return Files.exists(bannedJsonPath) || Files.exists(bannedBinPath) || Files.exists(pendingPopPath)
+                || Files.exists(legacyDeathsPath) || Files.isDirectory(dir.resolve("deaths"));
+    }
+
+    /**
+     * The whole death history, oldest first, for importing into another backend (after {@link #open}).
+     */
+    int forEachDeath(Consumer<Death> sink) throws IOException {
+        return deaths.forEach(sink);
+    }
+
+    @Override
+    public void append(List<StoreJournal.Record> txn) {
+        journal.append(txn);
+    }
+
+    @Override
+    public void applyAndAppend(Runnable change, StoreJournal.Record... txn) {
+        journalOrder.readLock().lock();
+        try {
+            change.run();
+            journal.append(txn);
+        } finally {
+            journalOrder.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void recordDeath(Death death) {
+        deaths.append(death);
+    }
+
+    @Override
+    public List<Death> history(UUID id, int limit) throws IOException {
+        return deaths.history(id, limit);
+    }
+
+    @Override
+    public void maintain() {
+        if (journal.recordsSinceCompaction() >= COMPACT_AFTER_RECORDS) compact();
+    }
+
+    @Override
+    public int backlog() {
+        return journal.recordsSinceCompaction();
+    }
+
+    @Override
+    public void flush() {
+        compact();
+        PersistenceThread.awaitIdle(10_000L);
+    }
+
+    @Override
+    public String describe() {
+        return "file (" + bannedPath.getFileName() + ")";
+    }
+
+    /**
+     * banned.json or banned.bin, whichever storeFormat selects.
+     */
+    Path bannedPath() {
+        return bannedPath;
+    }
+
+    /**
+     * The banned store file as the mod last wrote (or read) it; anything else is an external edit.
+     */
+    FileReloader.Stamp bannedWritten() {
+        return bannedFile.onDiskStamp();
+    }
+
+    /**
+     * Reads the banned store file after someone else edited it and returns what the edit changed, as
+     * journal records for the caller to apply: a BAN for each entry added or changed, an UNBAN for each
+     * entry taken out. The file is compared with the snapshot the mod last wrote, not with the live store,
+     * so bans and unbans made in memory since the last compaction are not undone by the edit.
+     * Entries that have already run out are ignored on both sides.
+     *
+     * I/O thread only (a {@link PersistenceThread} task), so it never reads the file half way through one of our writes.
+     */
+    List<StoreJournal.Record> readExternalEdit() throws IOException {
+        long now = System.currentTimeMillis();
+        BanTable edited = new BanTable(Math.max(64, bans.size()));
+        if (binary) {
+            BannedStoreBinary.read(bannedPath, edited::put, names, now);
+        } else {
+            try (BufferedReader br = Files.newBufferedReader(bannedPath, StandardCharsets.UTF_8)) {
+                BannedStoreCodec.read(br, edited::put, names, now);
+            }
+        }
+
+        BanEntries base = bannedFile.onDisk();
+        if (base == null) base = new BanTable(); // the store never loaded: take the whole file
+
+        List<StoreJournal.Record> changes = new ArrayList<>();
+        BanEntries before = base;
+        edited.forEach((hi, lo, name, until) -> {
+            UUID id = new UUID(hi, lo);
+            if (before.get(id, -1L) != until || !Objects.equals(before.nameOf(id), name)) {
+                changes.add(StoreJournal.ban(id, name, until));
+            }
+        });
+        before.forEach((hi, lo, name, until) -> {
+            UUID id = new UUID(hi, lo);
+            if (!edited.contains(id) && !BannedStoreCodec.expired(until, now)) changes.add(StoreJournal.unban(id, name));
+        });
+
+        bannedFile.adopt(edited);
+        HbLog.info("Reloaded " + bannedPath.getFileName() + " after an external edit (changes="
+                + changes.size() + ")");
+        return changes;
+    }
+
+    // =========================================================
+    // Load
+    // =========================================================
+
+    private void loadBannedStore() {
+        // storeFormat changed (or first start on binary): read the other format once and rewrite it in this one
+        Path other = binary ? bannedJsonPath : bannedBinPath;
+        Path source = Files.exists(bannedPath) ? bannedPath : (Files.exists(other) ? other : null);
+
+        if (source == null) {
+            bannedFile.markDirty();
+            bannedFile.flush();
+            return;
+        }
+
+        try {
+            // straight into the live store, without a tree or a second table; expired bans are left out
+            long now = System.currentTimeMillis();
+            bans.clear();
+            BannedStoreCodec.Loaded loaded;
+            if (source.equals(bannedBinPath)) {
+                loaded = BannedStoreBinary.read(source, bans::put, names, now);
+            } else {
+                try (BufferedReader br = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                    loaded = BannedStoreCodec.read(br, bans::put, names, now);
+                }
+            }
+
+            HbLog.info("Loaded banned entries=" + bans.size() + " from " + source.getFileName()
+                    + (loaded.expired() > 0 ? " (skipped expired=" + loaded.expired() + ")" : ""));
+            if (loaded.legacy() > 0) {
+                HbLog.info("Migrated name-keyed banned entries=" + loaded.legacy());
+            }
+            if (loaded.legacy() > 0 || !source.equals(bannedPath)) {
+                bannedFile.markDirty();
+                bannedFile.flush();
+            }
+            if (bannedFile.onDisk() == null) {
+                bannedFile.adopt(bans.snapshot()); // unchanged on disk; the base for diffing external edits
+            }
+            if (!source.equals(bannedPath) && bannedFile.lastWriteOk()) {
+                Path kept = source.resolveSibling(source.getFileName() + ".migrated");
+                Files.move(source, kept, StandardCopyOption.REPLACE_EXISTING);
+                HbLog.info("Migrated " + source.getFileName() + " -> " + bannedPath.getFileName()
+                        + " (old file kept as " + kept.getFileName() + ")");
+            }
+        } catch (Exception e) {
+            HbLog.error("Failed to load banned store: " + source, e);
+        }
+    }
+
+    private void loadPendingTotemPop() {
+        if (!Files.exists(pendingPopPath)) {
+            pendingPopFile.markDirty();
+            pendingPopFile.flush();
+            return;
+        }
+
+        try (BufferedReader br = Files.newBufferedReader(pendingPopPath, StandardCharsets.UTF_8)) {
+            Set<String> loaded = gson.fromJson(br, STRING_SET_TYPE);
+            pendingPops.clear();
+            if (loaded != null) pendingPops.addAll(loaded);
+            HbLog.debug("Loaded pending totem pop list size={}", pendingPops.size());
+        } catch (Exception e) {
+            HbLog.error("Failed to load pending pop store: " + pendingPopPath, e);
+        }
+    }
+
+    private void replayJournal() {
+        long now = System.currentTimeMillis();
+        int applied = journal.replay(r -> {
+            switch (r.op()) {
+                case BAN -> {
+                    UUID id = r.id() != null ? r.id() : names.resolve(r.name());
+                    if (BannedStoreCodec.expired(r.until(), now)) {
+                        bans.remove(id); // ran out while the server was down
+                    } else {
+                        bans.put(id, r.name(), r.until());
+                    }
+                }
+                case UNBAN -> {
+                    UUID id = r.id() != null ? r.id() : findBanned(r.name());
+                    if (id != null) bans.remove(id);
+                }
+                case POP_ADD -> pendingPops.add(r.name());
+                case POP_REMOVE -> pendingPops.remove(r.name());
+            }
+        });
+
+        if (applied > 0) {
+            HbLog.info("Replayed journal records=" + applied);
+            flush();
+        }
+    }
+
+    private void importLegacyDeaths() {
+        if (!Files.exists(legacyDeathsPath)) return;
+
+        int imported = 0;
+        try (BufferedReader br = Files.newBufferedReader(legacyDeathsPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    deaths.append(DeathLog.fromJson(LINE_GSON.fromJson(line, JsonObject.class)));
+                    imported++;
+                } catch (Exception ignored) {
+                    // torn last line
+                }
+            }
+            PersistenceThread.awaitIdle(10_000L);
+            Files.move(legacyDeathsPath, legacyDeathsPath.resolveSibling("deaths.ndjson.migrated"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            HbLog.info("Moved deaths=" + imported + " from deaths.ndjson into deaths/");
+        } catch (IOException e) {
+            HbLog.error("Failed to import death history: " + legacyDeathsPath, e);
+        }
+    }
+
+    private UUID findBanned(String name) {
+        UUID id = names.find(name);
+        if (id != null && bans.contains(id)) return id;
+        return bans.findByName(name);
+    }
+
+    // =========================================================
+    // Save
+    // =========================================================
+
+    /**
+     * Folds the journal into fresh snapshots. Both snapshot writes are queued before the truncate,
+     * and the I/O thread runs them in order, so no record is dropped before a snapshot covers it.
+     */
+    private void compact() {
+        journalOrder.writeLock().lock();
+        try {
+            bannedFile.markDirty();
+            pendingPopFile.markDirty();
+            bannedFile.handOff();
+            pendingPopFile.handOff();
+            journal.truncateAfterPendingWrites(() -> bannedFile.lastWriteOk() && pendingPopFile.lastWriteOk());
+        } finally {
+            journalOrder.writeLock().unlock();
+        }
+    }
+
+    private void writeBannedStore(BanEntries snapshot, Path file) throws IOException {
+        long start = System.nanoTime();
+        if (binary) {
+            Files.createDirectories(dir);
+            BannedStoreBinary.write(snapshot, file);
+        } else {
+            writeJson(BannedStoreCodec.toJson(snapshot), file);
+        }
+        HbMetrics.STORE_SAVE.recordSince(start);
+    }
+
+    // runs on the I/O thread with a snapshot, never with the live collections
+    private void writeJson(Object snapshot, Path file) throws IOException {
+        Files.createDirectories(dir);
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, bw);
+        }
+    }
+}
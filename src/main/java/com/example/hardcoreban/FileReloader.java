@@ -0,0 +1,143 @@
+package com.example.hardcoreban;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Picks up edits made by someone else (an admin, an external tool) to files in config/HardcoreBan/ that the
+ * mod otherwise only reads at startup, and hands each edited file to its reload callback.
+ *
+ * Events are debounced, since editors and tools write in several steps. The file's stamp (modification
+ * time + size) is then compared with the stamp of the mod's own last write, so the mod's own saves never
+ * come back as reloads. The check and the callback run on the executor given for the file: the I/O thread
+ * for a file the mod writes there, so a reload can never interleave with one of its writes.
+ */
+final class FileReloader {
+
+    /**
+     * What a file looked like after a write: enough to tell the mod's own write from someone else's.
+     */
+    record Stamp(long modifiedMs, long size) {
+
+        /**
+         * Null if the file does not exist.
+         */
+        static Stamp of(Path file) {
+            try {
+                BasicFileAttributes a = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(a.lastModifiedTime().toMillis(), a.size());
+            } catch (IOException e) {
+                return null;    // gone (NoSuchFileException) or unreadable: nothing to reload yet
+            }
+        }
+    }
+
+    private record Watched(Path file, Executor on, Supplier<Stamp> ownWrite, Consumer<Path> reload) {}
+
+    private static final long DEBOUNCE_MS = 500L;
+
+    private final Path dir;
+    private final Map<Path, Watched> watched = new ConcurrentHashMap<>();   // by file name
+    private final Map<Path, Stamp> handled = new ConcurrentHashMap<>();     // stamp last reloaded, by file name
+
+    private volatile WatchService watcher;
+
+    FileReloader(Path dir) {
+        this.dir = dir.toAbsolutePath();
+    }
+
+    /**
+     * Reloads {@code fileName} (in the watched directory) when it changes into anything other than
+     * {@code ownWrite}'s stamp. {@code reload} runs on {@code on}.
+     */
+    void watch(String fileName, Executor on, Supplier<Stamp> ownWrite, Consumer<Path> reload) {
+        Path name = Path.of(fileName);
+        watched.put(name, new Watched(dir.resolve(name), on, ownWrite, reload));
+    }
+
+    void start() {
+        if (watcher != null || watched.isEmpty()) return;
+
+        try {
+            WatchService ws = dir.getFileSystem().newWatchService();
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = ws;
+        } catch (IOException e) {
+            HbLog.error("Could not watch " + dir + " for external edits", e);
+            return;
+        }
+
+        Thread t = new Thread(this::watchLoop, "HardcoreBan-Reload");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void stop() {
+        WatchService ws = watcher;
+        watcher = null;
+        if (ws == null) return;
+        try {
+            ws.close();
+        } catch (IOException ignored) {}
+    }
+
+    private void watchLoop() {
+        // file name -> when it was last touched; checked once it has been quiet for DEBOUNCE_MS
+        Map<Path, Long> touched = new HashMap<>();
+        WatchService ws;
+        while ((ws = watcher) != null) {
+            WatchKey key;
+            try {
+                key = touched.isEmpty() ? ws.take() : ws.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (key != null) {
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        for (Path name : watched.keySet()) touched.put(name, now);
+                    } else if (ev.context() instanceof Path name && watched.containsKey(name)) {
+                        touched.put(name, now);
+                    }
+                }
+                if (!key.reset()) return;
+            }
+
+            touched.entrySet().removeIf(e -> {
+                if (now - e.getValue() < DEBOUNCE_MS) return false;
+                Watched w = watched.get(e.getKey());
+                w.on().execute(() -> check(e.getKey(), w));
+                return true;
+            });
+        }
+    }
+
+    private void check(Path name, Watched w) {
+        Stamp now = Stamp.of(w.file());
+        if (now == null || now.equals(w.ownWrite().get()) || now.equals(handled.get(name))) return;
+        handled.put(name, now);
+
+        HbLog.debug("External edit of {} detected, reloading", name);
+        try {
+            w.reload().accept(w.file());
+        } catch (Exception e) {
+            HbLog.error("Failed to reload " + w.file(), e);
+        }
+    }
+}
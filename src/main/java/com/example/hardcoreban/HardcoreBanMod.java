@@ -2,32 +2,28 @@ package com.example.hardcoreban;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.player.UseItemCallback;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.component.DataComponentTypes;
-import net.minecraft.component.type.NbtComponent;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
-import net.minecraft.nbt.NbtCompound;
-import net.minecraft.nbt.NbtOps;
 import net.minecraft.particle.ParticleTypes;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
-import net.minecraft.screen.GenericContainerScreenHandler;
-import net.minecraft.screen.ScreenHandlerType;
-import net.minecraft.screen.SimpleNamedScreenHandlerFactory;
-import net.minecraft.screen.slot.SlotActionType;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.PlayerManager;
 import net.minecraft.server.command.ServerCommandSource;
@@ -38,6 +34,7 @@ import net.minecraft.sound.SoundEvents;
 import net.minecraft.text.Text;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -46,9 +43,13 @@ import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static com.mojang.brigadier.arguments.StringArgumentType.getString;
@@ -75,71 +76,170 @@ public class HardcoreBanMod implements ModInitializer {
 
     private static Path MOD_CONFIG_DIR;
     private static Path CONFIG_PATH;          // config.json
-    private static Path BANNED_PATH;          // banned.json (name + untilMs)
-    private static Path PENDING_POP_PATH;     // pending_revive_pop.json
-
-    // config fields
-    private static volatile String banDuration = "36h";
-    private static volatile boolean DEBUG = false;
+    private static Path DEATH_COUNTS_PATH;    // death_counts.json (escalation windows)
+    private static Path DEATH_STATS_PATH;     // death_stats.json (leaderboard aggregates, see DeathStats)
+    private static Path SKINS_PATH;           // skins.json (banned players' skins for the menu heads, see SkinCache)
+
+    // banned store, pending pops and death history (see BanStorage), fixed at startup.
+    // STORAGE publishes to the replication feed when that is on; LOCAL_STORAGE never does.
+    private static BanStorage STORAGE;
+    private static BanStorage LOCAL_STORAGE;
+    private static WriteBehindFile<BanTable> DEATH_COUNTS_FILE;
+    private static WriteBehindFile<JsonObject> DEATH_STATS_FILE;
+    private static WriteBehindFile<JsonObject> SKINS_FILE;
+    private static final long STATS_CHECKPOINT_MS = 60_000L;
+
+    // storage backend (file | h2) and, for file, the banned store format (json | binary)
+    private static volatile String storage = "file";
+    private static volatile String storeFormat = "json";
+
+    // multi-server replication through a shared directory (config.replicationDir, "" = off)
+    private static ReplicationFeed FEED;
+    private static volatile String replicationDir = "";
+    private static volatile String nodeId = "";
+
+    // config fields: ban length, compiled from banDuration + escalation (rebuilt only when config changes)
+    private static volatile BanPolicy POLICY = BanPolicy.compile("36h", "30d", List.of());
+
+    // deaths per player inside the escalation window
+    private static final DeathCounters DEATHS = new DeathCounters();
+
+    // all-time death / revive aggregates for /hardcoreban top and stats <player>
+    private static final DeathStats STATS = new DeathStats();
+    private static long lastStatsCheckpointMs = 0L;
 
     // =========================================================
-    // Banned store: name -> untilEpochMs
+    // Banned store: uuid -> untilEpochMs (+ last known name)
+    // Thread-safe (see BanStore); everything derived from it below is server-thread only unless noted.
     // =========================================================
 
-    private static final Map<String, Long> BANNED_UNTIL = new LinkedHashMap<>();
+    private static final BanStore BANNED_UNTIL = new BanStore();
 
-    // revived players waiting for “first join” totem pop
-    private static final Set<String> PENDING_TOTEM_POP = new LinkedHashSet<>();
+    // name -> uuid, seeded from the server's user cache (reads usercache.json directly)
+    private static final Path USERCACHE_JSON = Path.of("usercache.json");
+    private static final PlayerNames NAMES = new PlayerNames();
 
-    // ban queue: we still queue commands so death hook stays lightweight
-    private static final Queue<QueuedBan> BAN_QUEUE = new ConcurrentLinkedQueue<>();
-    private record QueuedBan(String playerName, String duration, String reason) {}
+    // min-heap over BANNED_UNTIL by expiry, so pruning only touches bans that actually ran out
+    private static final ExpiryIndex<UUID> EXPIRY = new ExpiryIndex<>();
 
-    // op cache (reads ops.json directly)
-    private static final Path OPS_JSON = Path.of("ops.json");
-    private static volatile long opsCacheLastLoadMs = 0L;
-    private static final Set<UUID> OPS_CACHE = new HashSet<>();
-    private static final Type OPS_LIST_TYPE = new TypeToken<List<OpsEntry>>() {}.getType();
+    // login fast path: "definitely not banned" without touching BANNED_UNTIL (rebuilt as it saturates; any thread)
+    private static volatile UuidBloomFilter BANNED_FILTER = new UuidBloomFilter(0);
 
-    private static final class OpsEntry {
-        String uuid;
-        String name;
-        int level;
-        boolean bypassesPlayerLimit;
-    }
+    // banned names for tab completion (/revive <player>, removebanned), kept in step by storeBan / removeBan
+    private static final NameTrie BANNED_NAMES = new NameTrie();
+    private static final int SUGGESTIONS = 50;
+
+    // skins captured at the banning death, and the finished revive-menu heads built from them (LRU, off-thread)
+    private static final SkinCache SKINS = new SkinCache();
+    static final HeadCache HEADS = new HeadCache(1024, SKINS::get);
+
+    // revived players waiting for “first join” totem pop (any thread)
+    private static final Set<String> PENDING_TOTEM_POP = ConcurrentHashMap.newKeySet();
+
+    // death hook -> bounded queue -> staged processing on the server thread (see DeathPipeline)
+    private static final int DEATH_QUEUE_CAPACITY = 1024;
+    private static final DeathPipeline DEATH_PIPELINE = new DeathPipeline(DEATH_QUEUE_CAPACITY);
+
+    // server thread: players whose current life already died, so a second onDeath for it is dropped at the hook.
+    // Cleared on respawn and on disconnect, so it never holds more than the online players.
+    private static final Set<UUID> DIED_THIS_LIFE = new HashSet<>();
+
+    // server thread: time of the last death processed per online player, so the same death submitted twice is dropped
+    private static final Map<UUID, Long> LAST_DEATH_AT = new HashMap<>();
+
+    // announce each death ban to everyone (config.announceBans)
+    private static volatile boolean announceBans = false;
+
+    // ban queue: the death pipeline only queues, bans are applied once per tick by the enforcer
+    private static final Queue<BanEnforcer.Ban> BAN_QUEUE = new ConcurrentLinkedQueue<>();
+    private static final BanEnforcer ENFORCER = new BanEnforcer();
+    private static final int BAN_SLICE = 8;        // bans applied between deadline checks
+    private static final int EXPIRY_SLICE = 64;    // expiries popped between deadline checks
+
+    // all per-tick work runs through this, inside config.tickBudgetMicros
+    private static final TickScheduler SCHEDULER = new TickScheduler(2_000_000L);
+
+    // optional localhost /metrics endpoint (config.metricsPort, 0 = off)
+    private static final MetricsExporter EXPORTER = new MetricsExporter();
+    private static volatile int metricsPort = 0;
+
+    // edits to config.json and the banned store made while the server runs (see FileReloader)
+    private static FileReloader RELOADER;
+    private static volatile FileReloader.Stamp configWritten;   // config.json as saveConfig last left it
+    private static final Queue<StoreJournal.Record> STORE_EDITS = new ConcurrentLinkedQueue<>();   // banned store edit -> server thread
+
+    // op snapshot (reads ops.json directly, reloaded off-thread on change)
+    private static final Path OPS_JSON = Path.of("ops.json");
+    private static final OpsSnapshot OPS = new OpsSnapshot(OPS_JSON, GSON);
 
     // misc
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int HISTORY_LINES = 10;
     private static final Type CONFIG_TYPE = new TypeToken<ConfigFile>() {}.getType();
-    private static final Type BANNED_MAP_TYPE = new TypeToken<Map<String, Long>>() {}.getType();
-    private static final Type STRING_SET_TYPE = new TypeToken<Set<String>>() {}.getType();
 
     private static final class ConfigFile {
         String banDuration = "36h";
+        String escalationWindow = "30d";                         // deaths counted within this for escalation
+        List<BanPolicy.Tier> escalation = new ArrayList<>();     // e.g. [{"deaths": 2, "duration": "3d"}]
         boolean debug = false;
+        String enforcement = "index";   // index | vanilla | command (see BanEnforcer)
+        long tickBudgetMicros = 2000L;  // server-thread time per tick for HardcoreBan work (see TickScheduler)
+        int metricsPort = 0;            // >0: serve Prometheus metrics on 127.0.0.1:<port>/metrics
+        String storage = "file";        // file (banned.json + store.journal) | h2 (hardcoreban.mv.db); h2 imports the files once
+        String storeFormat = "json";    // storage=file: json (banned.json) | binary (banned.bin); switching migrates on next start
+        String replicationDir = "";     // directory shared by several servers to replicate bans (see ReplicationFeed), "" = off
+        String nodeId = "";             // this server's name in replicationDir (generated when empty)
+        boolean announceBans = false;   // broadcast "<player> is out for 36h" on each death ban
     }
 
     // prune throttle
     private static volatile long lastPruneMs = 0L;
 
+    // online sweep in progress (players still to check), resumed across ticks
+    private static List<ServerPlayerEntity> onlineSweep = null;
+    private static int onlineSweepAt = 0;
+
+    // revive-menu countdown throttle
+    private static long lastCountdownMs = 0L;
+
     @Override
     public void onInitialize() {
-        // PROOF you’re running the jar you built:
-        System.out.println("[HardcoreBan] LOADED_JAR=" +
-                HardcoreBanMod.class.getProtectionDomain().getCodeSource().getLocation());
-
         // -------------------------
         // Setup config paths
         // -------------------------
         MOD_CONFIG_DIR = FabricLoader.getInstance().getConfigDir().resolve("HardcoreBan");
         CONFIG_PATH = MOD_CONFIG_DIR.resolve("config.json");
-        BANNED_PATH = MOD_CONFIG_DIR.resolve("banned.json");
-        PENDING_POP_PATH = MOD_CONFIG_DIR.resolve("pending_revive_pop.json");
+        DEATH_COUNTS_PATH = MOD_CONFIG_DIR.resolve("death_counts.json");
+        DEATH_STATS_PATH = MOD_CONFIG_DIR.resolve("death_stats.json");
+        SKINS_PATH = MOD_CONFIG_DIR.resolve("skins.json");
 
+        DEATH_COUNTS_FILE = new WriteBehindFile<>(DEATH_COUNTS_PATH, DEATHS::copy,
+                (snapshot, file) -> writeJson(DeathCounters.toJson(snapshot, System.currentTimeMillis(), POLICY.windowMs()), file));
+        DEATH_STATS_FILE = new WriteBehindFile<>(DEATH_STATS_PATH, STATS::toJson, HardcoreBanMod::writeJson);
+        SKINS_FILE = new WriteBehindFile<>(SKINS_PATH, SKINS::toJson, HardcoreBanMod::writeJson);
+
+        long initStart = System.nanoTime();
         ensureConfigDir();
-        loadConfig();              // loads banDuration + debug
-        loadBannedStore();         // loads banned list with expiries
-        loadPendingTotemPop();     // loads pending pop set
+        loadConfig();              // first: it picks the ban policy, the storage backend and the store format
+
+        // files that don't depend on each other load side by side; the banned store only waits for the
+        // user cache (name-keyed entries from old versions are resolved through it)
+        CompletableFuture<Void> sideFiles = CompletableFuture.allOf(
+                CompletableFuture.runAsync(OPS::reloadNow),
+                CompletableFuture.runAsync(HardcoreBanMod::loadDeathCounts),   // escalation windows
+                CompletableFuture.runAsync(HardcoreBanMod::loadDeathStats),    // leaderboard aggregates (checkpoint, no history replay)
+                CompletableFuture.runAsync(HardcoreBanMod::loadSkins));        // menu-head skins
+        NAMES.loadUserCache(USERCACHE_JSON, GSON);
+        long loadStart = System.nanoTime();
+        openStorage();             // live bans (expired ones skipped while reading) + pending pop set, in parallel
+        rebuildExpiryIndex();
+        rebuildBanFilter();
+        rebuildBannedNames();
+        HbMetrics.STORE_LOAD.recordSince(loadStart);
+        sideFiles.join();
+        registerGauges();
+        registerDeathStages();
+        registerReloads();
 
         // -------------------------
         // Register revive item
@@ -161,37 +261,58 @@ public class HardcoreBanMod implements ModInitializer {
 
             if (BANNED_UNTIL.isEmpty()) {
                 sp.sendMessage(Text.literal("[HardcoreBan] No one is currently banned."), false);
-                log("Right-click revive totem by=" + sp.getName().getString() + " but banned list empty");
+                HbLog.debug("Right-click revive totem by={} but banned list empty", sp);
                 return ActionResult.PASS;
             }
 
-            log("Right-click revive totem by=" + sp.getName().getString() + " opening GUI");
+            HbLog.debug("Right-click revive totem by={} opening GUI", sp);
             openReviveGui(sp);
             return ActionResult.SUCCESS;
         });
 
         // -------------------------
         // When a player joins: if revived earlier, play totem pop ONCE
-        // Also: if they appear in revive list, remove them (they're online => not banned)
+        // Also: if they appear in revive list, either refuse them (enforcement=index, the store IS the ban;
+        // normally already refused at login by checkLoginBan) or remove them (another ban list let them in)
         // -------------------------
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             ServerPlayerEntity sp = handler.getPlayer();
             if (sp == null) return;
 
+            UUID id = sp.getUuid();
             String name = sp.getName().getString();
+            NAMES.remember(id, name);
+
+            long until = BANNED_UNTIL.get(id, -1L);
+            if (until != -1L && !BannedStoreCodec.expired(until, System.currentTimeMillis()) && ENFORCER.enforcesLogin(server)) {
+                HbLog.debug("Join refused for banned player={}", name);
+                handler.disconnect(BanEnforcer.banMessage(until));
+                return;
+            }
 
-            boolean removed = false;
-            if (BANNED_UNTIL.remove(name) != null) {
-                removed = true;
-                saveBannedStore();
-                log("Join cleanup removed stale banned entry for online player=" + name);
+            List<StoreJournal.Record> changes = new ArrayList<>(2);
+            if (removeBan(id)) {
+                changes.add(StoreJournal.unban(id, name));
+                HbLog.debug("Join cleanup removed stale banned entry for online player={}", name);
             }
 
             if (PENDING_TOTEM_POP.remove(name)) {
-                log("First-join totem pop for revived player=" + name);
+                HbLog.debug("First-join totem pop for revived player={}", name);
                 triggerTotemPop(sp);
-                savePendingTotemPop();
+                changes.add(StoreJournal.popRemove(name));
             }
+
+            STORAGE.append(changes);
+        });
+
+        // a new life: the next death counts again
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> DIED_THIS_LIFE.remove(newPlayer.getUuid()));
+
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            ServerPlayerEntity sp = handler.getPlayer();
+            if (sp == null) return;
+            DIED_THIS_LIFE.remove(sp.getUuid());
+            LAST_DEATH_AT.remove(sp.getUuid());
         });
 
         // -------------------------
@@ -199,6 +320,10 @@ public class HardcoreBanMod implements ModInitializer {
         // -------------------------
         ServerLifecycleEvents.SERVER_STARTING.register(server -> {
             SERVER = server;
+            OPS.startWatching();
+            RELOADER.start();
+            EXPORTER.start(metricsPort);
+            if (FEED != null) FEED.start();
             // IMPORTANT: DO NOT prune here. PlayerManager may still be null at this stage.
         });
 
@@ -206,23 +331,65 @@ public class HardcoreBanMod implements ModInitializer {
             // Safe time to touch PlayerManager
             lastPruneMs = 0L;
             pruneExpiredAndOnline(server, "server_started");
+            ReviveMenuHandler.prefetchFirstPage(BANNED_UNTIL);
         });
 
-        ServerLifecycleEvents.SERVER_STOPPED.register(server -> SERVER = null);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            // nothing may be left in memory once the server is gone
+            DEATH_PIPELINE.drain(Long.MAX_VALUE);
+            ENFORCER.saveVanillaList(server);
+            DEATH_COUNTS_FILE.handOff();
+            DEATH_STATS_FILE.handOff();
+            SKINS_FILE.handOff();
+            STORAGE.close();
+            PersistenceThread.awaitIdle(10_000L);
+            OPS.stopWatching();
+            RELOADER.stop();
+            EXPORTER.stop();
+            if (FEED != null) FEED.stop();
+            SERVER = null;
+        });
 
         // -------------------------
-        // Tick: run queued bans + periodic prune
+        // Tick: queued deaths and bans, expiry, online sweep, GUI refreshes and compaction, all inside the tick budget
         // -------------------------
-        ServerTickEvents.END_SERVER_TICK.register(server -> {
-            runBanQueue(server);
-
+        SCHEDULER.add("deaths", DEATH_PIPELINE::drain);
+        SCHEDULER.add("bans", deadline -> runBanQueue(serverOrNull(), deadline));
+        SCHEDULER.add("expiry", HardcoreBanMod::expiryStep);
+        SCHEDULER.add("replication", deadline -> replicationStep(serverOrNull(), deadline));
+        SCHEDULER.add("store_edits", deadline -> storeEditStep(serverOrNull(), deadline));
+        SCHEDULER.add("vanilla_bans", deadline -> {
+            ENFORCER.saveVanillaList(serverOrNull()); // enforcement=vanilla: one banned-players.json write for the tick
+            return false;
+        });
+        SCHEDULER.add("online_prune", deadline -> onlinePruneStep(serverOrNull(), deadline));
+        SCHEDULER.add("menu_heads", deadline -> {
+            if (HEADS.drainResolved() > 0) ReviveMenuHandler.refreshPendingHeads();
+            return false;
+        });
+        SCHEDULER.add("menu_countdowns", deadline -> {
+            long now = System.currentTimeMillis();
+            if (now - lastCountdownMs >= 1000L) {
+                lastCountdownMs = now;
+                ReviveMenuHandler.tickCountdowns(now);
+            }
+            return false;
+        });
+        SCHEDULER.add("compaction", deadline -> {
+            STORAGE.maintain();
+            DEATH_COUNTS_FILE.handOff();
+            SKINS_FILE.handOff();
+            // the stats snapshot is O(players), so it is only checkpointed once a minute
             long now = System.currentTimeMillis();
-            if (now - lastPruneMs > 30_000L) {
-                lastPruneMs = now;
-                pruneExpiredAndOnline(server, "tick");
+            if (now - lastStatsCheckpointMs >= STATS_CHECKPOINT_MS) {
+                lastStatsCheckpointMs = now;
+                DEATH_STATS_FILE.handOff();
             }
+            return false;
         });
 
+        ServerTickEvents.END_SERVER_TICK.register(server -> SCHEDULER.runTick());
+
         // -------------------------
         // Commands
         // -------------------------
@@ -230,6 +397,9 @@ public class HardcoreBanMod implements ModInitializer {
             registerHbCommand(dispatcher);
             registerReviveCommands(dispatcher);
         });
+
+        HbLog.info("Initialized in " + (System.nanoTime() - initStart) / 1_000_000L + " ms (banned entries="
+                + BANNED_UNTIL.size() + ", storage " + STORAGE.describe() + ")");
     }
 
     // =========================================================
@@ -247,13 +417,19 @@ public class HardcoreBanMod implements ModInitializer {
     // Commands
     // =========================================================
 
+    // banned names starting with what was typed, straight from the trie (no list copied per keystroke)
+    private static final SuggestionProvider<ServerCommandSource> BANNED_NAME_SUGGESTIONS = (ctx, builder) -> {
+        BANNED_NAMES.complete(builder.getRemaining(), SUGGESTIONS, builder::suggest);
+        return builder.buildFuture();
+    };
+
     private static void registerHbCommand(CommandDispatcher<ServerCommandSource> dispatcher) {
         dispatcher.register(
                 literal("hb")
                         .requires(HardcoreBanMod::isOpOrConsole)
                         .executes(ctx -> {
                             ctx.getSource().sendFeedback(() -> Text.literal(
-                                    "§6[HardcoreBan] §7Current ban duration: §e" + banDuration
+                                    "§6[HardcoreBan] §7Current ban duration: §e" + POLICY.describe()
                                             + "§7  | Usage: §e/hb <duration>§7 (e.g. 2d, 36h, 12h30m)"
                             ), false);
                             return 1;
@@ -262,18 +438,18 @@ public class HardcoreBanMod implements ModInitializer {
                                 .executes(ctx -> {
                                     String duration = getString(ctx, "duration");
 
-                                    if (!duration.matches("(?i)\\d+[smhdy](\\d+[smhdy])*")) {
+                                    if (!BanPolicy.isValidDuration(duration)) {
                                         ctx.getSource().sendError(Text.literal(
-                                                "[HardcoreBan] Invalid duration. Examples: 15s, 3m, 24h, 7d, 5y3d9h3m8s"
+                                                "[HardcoreBan] Invalid duration (must be longer than 0). Examples: 15s, 3m, 24h, 7d, 5y3d9h3m8s"
                                         ));
                                         return 0;
                                     }
 
-                                    banDuration = duration;
+                                    POLICY = POLICY.withBase(duration);
                                     saveConfig();
 
                                     ctx.getSource().sendFeedback(
-                                            () -> Text.literal("[HardcoreBan] Ban duration set to " + banDuration),
+                                            () -> Text.literal("[HardcoreBan] Ban duration set to " + POLICY.describe()),
                                             false
                                     );
                                     return 1;
@@ -294,6 +470,9 @@ public class HardcoreBanMod implements ModInitializer {
                             openReviveGui(player);
                             return 1;
                         })
+                        .then(argument("player", word())
+                                .suggests(BANNED_NAME_SUGGESTIONS)
+                                .executes(ctx -> reviveByName(ctx.getSource(), getString(ctx, "player"))))
         );
 
         dispatcher.register(
@@ -322,35 +501,66 @@ public class HardcoreBanMod implements ModInitializer {
                                     String n = getString(ctx, "name");
                                     if (n != null && !n.isBlank()) {
                                         long until = System.currentTimeMillis() + (24L * 60L * 60L * 1000L);
-                                        BANNED_UNTIL.put(n, until);
-                                        saveBannedStore();
+                                        UUID id = NAMES.resolve(n);
+                                        putBan(id, n, until);
+                                        STORAGE.append(StoreJournal.ban(id, n, until));
                                     }
                                     ctx.getSource().sendFeedback(() -> Text.literal("[HardcoreBan] Added: " + n), false);
                                     return 1;
                                 })))
                         .then(literal("removebanned")
-                                .then(argument("name", word()).executes(ctx -> {
+                                .then(argument("name", word()).suggests(BANNED_NAME_SUGGESTIONS).executes(ctx -> {
                                     String n = getString(ctx, "name");
                                     if (n != null && !n.isBlank()) {
-                                        BANNED_UNTIL.remove(n);
-                                        saveBannedStore();
+                                        UUID id = findBanned(n);
+                                        if (id != null && removeBan(id)) {
+                                            STORAGE.append(StoreJournal.unban(id, n));
+                                        }
                                     }
                                     ctx.getSource().sendFeedback(() -> Text.literal("[HardcoreBan] Removed: " + n), false);
                                     return 1;
                                 })))
+                        .then(literal("export").executes(ctx -> {
+                            int n = BANNED_UNTIL.size();
+                            Path target = exportBannedJson();
+                            ctx.getSource().sendFeedback(() -> Text.literal(
+                                    "[HardcoreBan] Exporting " + n + " banned entries to " + target), false);
+                            return 1;
+                        }))
+                        .then(literal("history")
+                                .then(argument("player", word()).executes(ctx -> {
+                                    showHistory(ctx.getSource(), getString(ctx, "player"));
+                                    return 1;
+                                })))
+                        .then(literal("top").executes(ctx -> {
+                            showTop(ctx.getSource());
+                            return 1;
+                        }))
+                        .then(literal("stats").executes(ctx -> {
+                            ServerCommandSource src = ctx.getSource();
+                            src.sendFeedback(() -> Text.literal("§6[HardcoreBan] Stats:"), false);
+                            for (String line : HbMetrics.summary()) {
+                                src.sendFeedback(() -> Text.literal("§7" + line), false);
+                            }
+                            return 1;
+                        })
+                                .then(argument("player", word()).executes(ctx -> {
+                                    showPlayerStats(ctx.getSource(), getString(ctx, "player"));
+                                    return 1;
+                                })))
                         .then(literal("debug")
                                 .then(literal("on").executes(ctx -> {
-                                    DEBUG = true;
+                                    HbLog.setDebug(true);
                                     saveConfig();
                                     ctx.getSource().sendFeedback(() -> Text.literal("[HardcoreBan] Debug ON"), false);
-                                    log("Debug turned ON by " + safeName(ctx.getSource()));
+                                    HbLog.debug("Debug turned ON by {}", safeName(ctx.getSource()));
                                     return 1;
                                 }))
                                 .then(literal("off").executes(ctx -> {
-                                    DEBUG = false;
+                                    HbLog.setDebug(false);
                                     saveConfig();
                                     ctx.getSource().sendFeedback(() -> Text.literal("[HardcoreBan] Debug OFF"), false);
-                                    log("Debug turned OFF by " + safeName(ctx.getSource()));
+                                    HbLog.debug("Debug turned OFF by {}", safeName(ctx.getSource()));
                                     return 1;
                                 })))
         );
@@ -362,10 +572,16 @@ public class HardcoreBanMod implements ModInitializer {
         src.sendFeedback(() -> Text.literal("§e/hb <duration>§7 - Sets tempban duration used on death."), false);
         src.sendFeedback(() -> Text.literal("§7   Example: §f/hb 2d §7or §f/hb 12h30m"), false);
         src.sendFeedback(() -> Text.literal("§e/revive§7 - Opens the revive GUI (OP only)."), false);
+        src.sendFeedback(() -> Text.literal("§e/revive <player>§7 - Revives a banned player directly (OP only)."), false);
         src.sendFeedback(() -> Text.literal("§e/revivegui§7 - Same as /revive (OP only)."), false);
         src.sendFeedback(() -> Text.literal("§e/hardcoreban addbanned <name>§7 - Adds a name to the revive GUI list (testing)."), false);
         src.sendFeedback(() -> Text.literal("§e/hardcoreban removebanned <name>§7 - Removes a name from the revive GUI list."), false);
         src.sendFeedback(() -> Text.literal("§e/hardcoreban debug on|off§7 - Turns HardcoreBan debug logs on/off."), false);
+        src.sendFeedback(() -> Text.literal("§e/hardcoreban history <player>§7 - Shows a player's last deaths."), false);
+        src.sendFeedback(() -> Text.literal("§e/hardcoreban stats§7 - Shows HardcoreBan counters and timings."), false);
+        src.sendFeedback(() -> Text.literal("§e/hardcoreban stats <player>§7 - Deaths, time banned, causes and revives of a player."), false);
+        src.sendFeedback(() -> Text.literal("§e/hardcoreban top§7 - Most deaths, most common causes, most revives given."), false);
+        src.sendFeedback(() -> Text.literal("§e/hardcoreban export§7 - Writes the banned list to banned-export.json."), false);
         src.sendFeedback(() -> Text.literal("§6[HardcoreBan] Item usage:"), false);
         src.sendFeedback(() -> Text.literal("§eRight-click the Revive Totem§7 - Opens revive GUI for anyone (only if someone is banned)."), false);
         src.sendFeedback(() -> Text.literal("§6[HardcoreBan] Notes:"), false);
@@ -373,8 +589,84 @@ public class HardcoreBanMod implements ModInitializer {
         src.sendFeedback(() -> Text.literal("§7- If a player is online, they are removed from the revive list."), false);
     }
 
+    private static void showTop(ServerCommandSource src) {
+        src.sendFeedback(() -> Text.literal("§6[HardcoreBan] " + STATS.totalDeaths() + " deaths, "
+                + STATS.totalRevives() + " revives"), false);
+        sendBoard(src, "Most deaths", STATS.topDeaths());
+        sendBoard(src, "Most common causes", STATS.topCauses());
+        sendBoard(src, "Most revives given", STATS.topRevivers());
+    }
+
+    private static void sendBoard(ServerCommandSource src, String title, List<DeathStats.Entry> entries) {
+        if (entries.isEmpty()) return;
+        src.sendFeedback(() -> Text.literal("§6" + title + ":"), false);
+        for (int i = 0; i < entries.size(); i++) {
+            DeathStats.Entry e = entries.get(i);
+            String line = "§7" + (i + 1) + ". §f" + e.key() + " §7(" + e.count() + ")";
+            src.sendFeedback(() -> Text.literal(line), false);
+        }
+    }
+
+    private static void showPlayerStats(ServerCommandSource src, String name) {
+        UUID id = NAMES.find(name);
+        DeathStats.PlayerView v = id == null ? null : STATS.view(id);
+        if (v == null && (id = STATS.findByName(name)) != null) v = STATS.view(id);
+        if (v == null) {
+            src.sendFeedback(() -> Text.literal("[HardcoreBan] No recorded deaths or revives for " + name), false);
+            return;
+        }
+
+        DeathStats.PlayerView view = v;
+        String banned = BanDurations.formatRemaining(view.bannedMs(), 0L);
+        src.sendFeedback(() -> Text.literal("§6[HardcoreBan] " + (view.name() == null ? name : view.name()) + ":"), false);
+        src.sendFeedback(() -> Text.literal("§7Deaths: §f" + view.deaths() + " §7| Time banned: §f" + (banned.isEmpty() ? "0m" : banned)), false);
+        src.sendFeedback(() -> Text.literal("§7Revives given: §f" + view.revivesGiven() + " §7| received: §f" + view.revivesReceived()), false);
+        for (DeathStats.Entry c : view.causes()) {
+            src.sendFeedback(() -> Text.literal("§7- " + c.key() + " §8(" + c.count() + ")"), false);
+        }
+    }
+
+    // reads run off the server thread; the answer is sent back on it
+    private static void showHistory(ServerCommandSource src, String name) {
+        UUID id = NAMES.find(name);
+        if (id == null) id = BANNED_UNTIL.findByName(name);
+        if (id == null) {
+            src.sendError(Text.literal("[HardcoreBan] Unknown player: " + name));
+            return;
+        }
+
+        UUID target = id;
+        MinecraftServer server = src.getServer();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return STORAGE.history(target, HISTORY_LINES);
+            } catch (IOException e) {
+                HbLog.error("Failed to read death history for " + target, e);
+                return null;
+            }
+        }).thenAccept(deaths -> server.execute(() -> {
+            if (deaths == null) {
+                src.sendError(Text.literal("[HardcoreBan] Could not read the death history, see the server log."));
+                return;
+            }
+            if (deaths.isEmpty()) {
+                src.sendFeedback(() -> Text.literal("[HardcoreBan] No recorded deaths for " + name), false);
+                return;
+            }
+            src.sendFeedback(() -> Text.literal("§6[HardcoreBan] Last deaths of " + name + ":"), false);
+            for (BanStorage.Death d : deaths) {
+                String when = LocalDateTime.ofInstant(Instant.ofEpochMilli(d.atMs()), ZoneId.systemDefault()).format(TIME_FORMAT);
+                String where = d.dimension() == null ? "" : " §8(" + d.dimension() + " " + d.x() + " " + d.y() + " " + d.z() + ")";
+                String ban = BanDurations.formatRemaining(d.atMs() + d.banMs(), d.atMs());
+                String cause = d.cause() == null ? "died" : d.cause();
+                src.sendFeedback(() -> Text.literal("§e" + when + " §7" + cause + where
+                        + (ban.isEmpty() ? "" : " §7ban §f" + ban)), false);
+            }
+        }));
+    }
+
     // =========================================================
-    // Permission check (reads ops.json directly)
+    // Permission check (ops.json snapshot, see OpsSnapshot)
     // =========================================================
 
     private static boolean isOpOrConsole(ServerCommandSource src) {
@@ -383,60 +675,80 @@ public class HardcoreBanMod implements ModInitializer {
         ServerPlayerEntity p = src.getPlayer();
         if (p == null) return false;
 
-        reloadOpsCacheIfNeeded();
-        boolean ok = OPS_CACHE.contains(p.getUuid());
+        boolean ok = OPS.isOp(p.getUuid());
 
-        log("requires() check player=" + p.getName().getString()
-                + " uuid=" + p.getUuid()
-                + " result=" + ok
-                + " opsCacheSize=" + OPS_CACHE.size());
+        HbLog.debug("requires() check player={} uuid={} result={} opsCacheSize={}", p, p.getUuid(), ok, OPS.size());
 
         return ok;
     }
 
-    private static void reloadOpsCacheIfNeeded() {
-        long now = System.currentTimeMillis();
-        if (now - opsCacheLastLoadMs < 5000) return;
-        opsCacheLastLoadMs = now;
-
-        if (!Files.exists(OPS_JSON)) return;
+    // called by PlayerManagerMixin when /op or /deop changes the server's list
+    public static void onOperatorsChanged() {
+        OPS.requestReload();
+    }
 
-        try (BufferedReader br = Files.newBufferedReader(OPS_JSON, StandardCharsets.UTF_8)) {
-            List<OpsEntry> list = GSON.fromJson(br, OPS_LIST_TYPE);
+    // =========================================================
+    // Public API (used by mixins / other classes)
+    // =========================================================
 
-            OPS_CACHE.clear();
-            if (list != null) {
-                for (OpsEntry e : list) {
-                    if (e == null || e.uuid == null) continue;
-                    if (e.level >= 4) OPS_CACHE.add(UUID.fromString(e.uuid));
-                }
-            }
+    /**
+     * Login phase (PlayerManagerMixin): the disconnect reason for a banned UUID, or null to let vanilla decide.
+     * Unbanned players are answered by the Bloom filter alone.
+     */
+    public static Text checkLoginBan(UUID id) {
+        if (id == null || !BANNED_FILTER.mightContain(id)) return null;
 
-            log("Reloaded ops.json entries=" + (list == null ? 0 : list.size()) + " level4UUIDs=" + OPS_CACHE.size());
-        } catch (Exception ex) {
-            OPS_CACHE.clear();
+        long until = BANNED_UNTIL.get(id, -1L);
+        if (until == -1L || BannedStoreCodec.expired(until, System.currentTimeMillis())) {
+            HbMetrics.LOGIN_FILTER_FALSE_POSITIVES.incrementAndGet();
+            return null;
         }
+
+        MinecraftServer server = SERVER;
+        if (server == null || !ENFORCER.enforcesLogin(server)) return null;
+
+        HbMetrics.LOGINS_REJECTED.incrementAndGet();
+        HbLog.debug("Login refused for banned uuid={}", id);
+        return BanEnforcer.banMessage(until);
     }
 
-    // =========================================================
-    // Public API (used by mixins / other classes)
-    // =========================================================
+    /**
+     * Death hook (ServerPlayerEntityMixin), inside the damage tick: captures the death and returns.
+     * The death message is built now (it depends on the damage tracker) but only resolved to a string later.
+     */
+    public static void queueDeath(ServerPlayerEntity player) {
+        if (!DIED_THIS_LIFE.add(player.getUuid())) {
+            HbMetrics.DEATHS_DEDUPED.incrementAndGet();
+            HbLog.debug("Repeated death of player={} in the same life ignored", player);
+            return;
+        }
 
-    public static void queueTempBan(String playerName, String reason) {
-        if (playerName == null || playerName.isBlank()) return;
+        // the signed skin is only known while the player is online; keep it for their menu head
+        if (SKINS.remember(player.getUuid(), player.getGameProfile())) SKINS_FILE.markDirty();
 
-        long now = System.currentTimeMillis();
-        long add = parseDurationToMillis(banDuration);
-        long until = (add <= 0) ? (now + 24L * 60L * 60L * 1000L) : (now + add);
+        BlockPos pos = player.getBlockPos();
+        String killer = player.getPrimeAdversary() instanceof PlayerEntity p && p != player ? p.getName().getString() : null;
+        submitDeath(new DeathPipeline.Event(player.getUuid(), player.getName().getString(),
+                player.getDamageTracker().getDeathMessage(), killer, player.getEntityWorld().getRegistryKey(),
+                pos.getX(), pos.getY(), pos.getZ(), System.currentTimeMillis(), System.nanoTime()));
+    }
 
-        BANNED_UNTIL.put(playerName, until);
-        saveBannedStore();
+    public static void queueTempBan(String playerName, String reason) {
+        if (playerName == null || playerName.isBlank()) return;
+        queueTempBan(NAMES.resolve(playerName), playerName, reason);
+    }
 
-        BAN_QUEUE.add(new QueuedBan(playerName, banDuration, reason == null ? "" : reason));
+    /**
+     * Safe from any thread: the death goes through the same pipeline as one from the death hook.
+     */
+    public static void queueTempBan(UUID playerId, String playerName, String reason) {
+        if (playerId == null || playerName == null || playerName.isBlank()) return;
+        submitDeath(new DeathPipeline.Event(playerId, playerName, reason == null ? null : Text.literal(reason), null, null,
+                0, 0, 0, System.currentTimeMillis(), System.nanoTime()));
     }
 
-    public static String formatReason(String deathMessage, int x, int y, int z) {
-        String time = LocalDateTime.now().format(TIME_FORMAT);
+    public static String formatReason(String deathMessage, long atMs) {
+        String time = LocalDateTime.ofInstant(Instant.ofEpochMilli(atMs), ZoneId.systemDefault()).format(TIME_FORMAT);
         return (deathMessage == null ? "Player has died" : deathMessage) + " | " + time;
     }
 
@@ -445,139 +757,92 @@ public class HardcoreBanMod implements ModInitializer {
     }
 
     // =========================================================
-    // Revive menu (GUI) with heads + timer
+    // Revive menu (GUI) with heads + timer (paging lives in ReviveMenuHandler)
     // =========================================================
 
     private static void openReviveMenu(ServerPlayerEntity opener) {
+        long start = System.nanoTime();
         MinecraftServer server = serverOrNull();
 
         pruneExpiredAndOnline(server, "open_gui");
 
-        List<String> names = new ArrayList<>(BANNED_UNTIL.keySet());
-
-        log("Opening revive GUI for " + opener.getName().getString()
-                + " bannedCount=" + names.size());
+        HbLog.debug("Opening revive GUI for {} bannedCount={}", opener, BANNED_UNTIL.size());
 
-        int rows = 6;
-        int size = rows * 9;
-
-        net.minecraft.inventory.SimpleInventory inv = new net.minecraft.inventory.SimpleInventory(size);
-        List<String> slotToName = new ArrayList<>(Collections.nCopies(size, null));
-
-        int count = Math.min(size, names.size());
-        for (int i = 0; i < count; i++) {
-            String name = names.get(i);
-            inv.setStack(i, makeBannedPlayerHead(name, BANNED_UNTIL.getOrDefault(name, 0L)));
-            slotToName.set(i, name);
-        }
-
-        opener.openHandledScreen(new SimpleNamedScreenHandlerFactory(
-                (syncId, playerInv, player) -> new ReviveMenuHandler(syncId, playerInv, inv, slotToName),
-                Text.literal("Revive Menu")
-        ));
+        ReviveMenuHandler.open(opener, BANNED_UNTIL);
+        HbMetrics.GUI_OPEN.recordSince(start);
     }
 
-    private static ItemStack makeBannedPlayerHead(String name, long untilMs) {
-        ItemStack viaCodec = tryBuildHeadViaCodec(name);
-        ItemStack head = (viaCodec != null && !viaCodec.isEmpty()) ? viaCodec : new ItemStack(Items.PLAYER_HEAD);
-
-        String remaining = formatRemaining(untilMs);
-        String title = remaining.isEmpty() ? name : (name + " §7(" + remaining + ")");
-        head.set(DataComponentTypes.CUSTOM_NAME, Text.literal(title));
-
-        NbtCompound skullOwner = new NbtCompound();
-        skullOwner.putString("Name", name);
-        NbtCompound root = new NbtCompound();
-        root.put("SkullOwner", skullOwner);
-        head.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(root));
+    /**
+     * Titled copy of the cached head, or null while it is still being built off-thread.
+     */
+    static ItemStack makeBannedPlayerHead(UUID id, String name, long untilMs) {
+        ItemStack head = HEADS.get(id, name);
+        if (head == null) return null;
 
+        head.set(DataComponentTypes.CUSTOM_NAME, headTitle(name, untilMs));
         return head;
     }
 
-    private static ItemStack tryBuildHeadViaCodec(String name) {
-        try {
-            NbtCompound item = new NbtCompound();
-            item.putString("id", "minecraft:player_head");
-            item.putInt("count", 1);
-
-            NbtCompound components = new NbtCompound();
-            NbtCompound profile = new NbtCompound();
-            profile.putString("name", name);
-            components.put("minecraft:profile", profile);
-
-            item.put("components", components);
-
-            var dataResult = ItemStack.CODEC.parse(NbtOps.INSTANCE, item);
-            var opt = dataResult.result();
-            if (opt.isPresent()) return opt.get();
-
-            log("ItemStack.CODEC parse failed for name=" + name + " error=" +
-                    dataResult.error().map(e -> e.message()).orElse("unknown"));
-            return null;
-        } catch (Throwable t) {
-            log("tryBuildHeadViaCodec exception: " + t.getClass().getSimpleName() + " " + t.getMessage());
-            return null;
-        }
+    static Text headTitle(String name, long untilMs) {
+        String remaining = formatRemaining(untilMs);
+        return Text.literal(remaining.isEmpty() ? name : (name + " §7(" + remaining + ")"));
     }
 
-    private static class ReviveMenuHandler extends GenericContainerScreenHandler {
-        private final List<String> slotToName;
-
-        public ReviveMenuHandler(int syncId,
-                                 net.minecraft.entity.player.PlayerInventory playerInv,
-                                 net.minecraft.inventory.SimpleInventory inv,
-                                 List<String> slotToName) {
-            super(ScreenHandlerType.GENERIC_9X6, syncId, playerInv, inv, 6);
-            this.slotToName = slotToName;
-        }
-
-        @Override
-        public void onSlotClick(int slotIndex, int button, SlotActionType actionType, PlayerEntity player) {
-            if (slotIndex >= 0 && slotIndex < 54 && player instanceof ServerPlayerEntity sp) {
-                String target = slotToName.get(slotIndex);
-                if (target != null) {
-                    log("GUI click by=" + sp.getName().getString() + " target=" + target);
-                    reviveSelected(sp, target);
-                    sp.closeHandledScreen();
-                    return;
-                }
-            }
-            super.onSlotClick(slotIndex, button, actionType, player);
+    // /revive <player>: the same as picking them in the menu, from a player or the console
+    private static int reviveByName(ServerCommandSource src, String name) {
+        UUID id = findBanned(name);
+        if (id == null || !reviveSelected(src.getPlayer(), id)) {
+            src.sendError(Text.literal("[HardcoreBan] " + name + " is not banned."));
+            return 0;
         }
+        return 1;
     }
 
-    private static void reviveSelected(ServerPlayerEntity reviver, String targetName) {
+    /**
+     * Server thread. {@code reviver} is null for the console. False if the target was not banned (anymore).
+     */
+    static boolean reviveSelected(ServerPlayerEntity reviver, UUID targetId) {
         MinecraftServer server = SERVER;
-        if (server == null) return;
-        if (targetName == null || targetName.isBlank()) return;
+        if (server == null) return false;
+        if (targetId == null) return false;
 
-        Long until = BANNED_UNTIL.get(targetName);
+        String targetName = BANNED_UNTIL.nameOf(targetId);
+        long until = BANNED_UNTIL.get(targetId, -1L);
         long now = System.currentTimeMillis();
-        if (until == null || until <= now) {
-            BANNED_UNTIL.remove(targetName);
-            saveBannedStore();
+        if (until == -1L || BannedStoreCodec.expired(until, now) || targetName == null) {
+            if (removeBan(targetId)) {
+                STORAGE.append(StoreJournal.unban(targetId, targetName));
+            }
 
-            reviver.sendMessage(Text.literal("[HardcoreBan] That player is no longer banned."), false);
-            log("Revive blocked: target=" + targetName + " not banned anymore");
-            return;
+            if (reviver != null) reviver.sendMessage(Text.literal("[HardcoreBan] That player is no longer banned."), false);
+            HbLog.debug("Revive blocked: target={} not banned anymore", targetName);
+            return false;
         }
 
         triggerTotemPop(reviver);
 
-        runCommand(server, "unban " + targetName);
-
-        BANNED_UNTIL.remove(targetName);
-        saveBannedStore();
+        ENFORCER.lift(server, targetId, targetName);
 
+        // one transaction: a crash can never leave the player unbanned without their pending pop
+        removeBan(targetId);
         PENDING_TOTEM_POP.add(targetName);
-        savePendingTotemPop();
+        STORAGE.append(StoreJournal.unban(targetId, targetName), StoreJournal.popAdd(targetName));
 
+        HbMetrics.REVIVES.incrementAndGet();
+        if (reviver != null) {
+            STATS.recordRevive(reviver.getUuid(), reviver.getName().getString(), targetId, targetName, until - now);
+        } else {
+            STATS.recordRevive(null, null, targetId, targetName, until - now);
+        }
+        DEATH_STATS_FILE.markDirty();
         server.getPlayerManager().broadcast(Text.literal(targetName + " has been revived"), false);
 
         consumeOneReviveTotem(reviver);
+        return true;
     }
 
     private static void consumeOneReviveTotem(ServerPlayerEntity player) {
+        if (player == null) return;
         ItemStack main = player.getMainHandStack();
         if (!main.isEmpty() && main.isOf(REVIVE_ITEM)) {
             main.decrement(1);
@@ -591,31 +856,115 @@ public class HardcoreBanMod implements ModInitializer {
     }
 
     // =========================================================
-    // Ban queue runner (BanHammer /tempban)
+    // Death pipeline stages (see DeathPipeline), server thread
     // =========================================================
 
-    private static void runBanQueue(MinecraftServer server) {
-        QueuedBan ban;
-        while ((ban = BAN_QUEUE.poll()) != null) {
-            String command = "tempban " + ban.playerName + " " + ban.duration + " " + quote(ban.reason);
-            runCommand(server, command);
+    private static void registerDeathStages() {
+        DEATH_PIPELINE.stage("dedupe", HbMetrics.DEATH_DEDUPE, HardcoreBanMod::dedupeDeath);
+        DEATH_PIPELINE.stage("policy", HbMetrics.DEATH_POLICY, HardcoreBanMod::decideBan);
+        DEATH_PIPELINE.stage("persist", HbMetrics.DEATH_PERSIST, HardcoreBanMod::persistDeath);
+        DEATH_PIPELINE.stage("enforce", HbMetrics.DEATH_ENFORCE, HardcoreBanMod::enforceDeath);
+        DEATH_PIPELINE.stage("broadcast", HbMetrics.DEATH_BROADCAST, HardcoreBanMod::announceDeath);
+    }
+
+    // any thread; a full queue falls back to the server's own task queue (or runs inline on the server thread)
+    private static void submitDeath(DeathPipeline.Event e) {
+        HbMetrics.DEATHS_QUEUED.incrementAndGet();
+        if (DEATH_PIPELINE.offer(e)) return;
+
+        HbMetrics.DEATHS_OVERFLOWED.incrementAndGet();
+        MinecraftServer server = SERVER;
+        if (server != null && !server.isOnThread()) {
+            server.execute(() -> DEATH_PIPELINE.process(e));
+        } else {
+            DEATH_PIPELINE.process(e);
         }
     }
 
-    private static void runCommand(MinecraftServer server, String command) {
-        try {
-            ServerCommandSource source = server.getCommandSource().withSilent();
-            server.getCommandManager().getDispatcher().execute(command, source);
-        } catch (Exception e) {
-            System.err.println("[HardcoreBan] Command failed: " + command);
-            e.printStackTrace();
+    /**
+     * Drops the same death submitted twice (same player, same time). A second onDeath for one life never
+     * gets this far (see DIED_THIS_LIFE); the TAIL hook only runs once totems have had their say, so a death
+     * that reaches the queue is never undone.
+     */
+    private static boolean dedupeDeath(DeathPipeline.Death d) {
+        DeathPipeline.Event e = d.event;
+        Long last = LAST_DEATH_AT.put(e.id(), e.atMs());
+        if (last != null && last == e.atMs()) {
+            HbMetrics.DEATHS_DEDUPED.incrementAndGet();
+            HbLog.debug("Repeated death of player={} at {} ignored", e.name(), e.atMs());
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean decideBan(DeathPipeline.Death d) {
+        DeathPipeline.Event e = d.event;
+        BanPolicy policy = POLICY;
+        int deaths = 1;
+        if (policy.escalates()) {
+            deaths = DEATHS.record(e.id(), e.atMs(), policy.windowMs());
+            DEATH_COUNTS_FILE.markDirty();
         }
+        d.duration = policy.durationText(deaths);
+        d.untilMs = e.atMs() + policy.durationMs(deaths);
+        d.cause = e.message() == null ? null : e.message().getString();
+        return true;
+    }
+
+    // the store is journaled and the history appended on their own threads; nothing here waits on I/O
+    private static boolean persistDeath(DeathPipeline.Death d) {
+        DeathPipeline.Event e = d.event;
+        NAMES.remember(e.id(), e.name());
+        STORAGE.applyAndAppend(() -> storeBan(e.id(), e.name(), d.untilMs), StoreJournal.ban(e.id(), e.name(), d.untilMs));
+
+        String dimension = e.dimension() == null ? null : e.dimension().getValue().toString();
+        long banMs = d.untilMs - e.atMs();
+        STORAGE.recordDeath(new BanStorage.Death(e.id(), e.name(), d.cause, dimension, e.x(), e.y(), e.z(), e.atMs(), banMs));
+        STATS.recordDeath(e.id(), e.name(), d.cause, e.killer(), banMs);
+        DEATH_STATS_FILE.markDirty();
+        return true;
+    }
+
+    // the enforcer applies bans in per-tick batches (runBanQueue, the next task)
+    private static boolean enforceDeath(DeathPipeline.Death d) {
+        DeathPipeline.Event e = d.event;
+        String reason = formatReason(d.cause, e.atMs());
+        BAN_QUEUE.add(new BanEnforcer.Ban(e.id(), e.name(), d.untilMs, d.duration, reason, e.queuedNanos()));
+        HbMetrics.BANS_QUEUED.incrementAndGet();
+        return true;
     }
 
-    private static String quote(String s) {
-        if (s == null) return "\"\"";
-        String escaped = s.replace("\\", "\\\\").replace("\"", "\\\"");
-        return "\"" + escaped + "\"";
+    private static boolean announceDeath(DeathPipeline.Death d) {
+        MinecraftServer server = SERVER;
+        if (!announceBans || server == null) return true;
+        server.getPlayerManager().broadcast(Text.literal(d.event.name() + " is out for " + d.duration), false);
+        return true;
+    }
+
+    // =========================================================
+    // Ban queue runner (see BanEnforcer for how bans are applied)
+    // =========================================================
+
+    private static boolean runBanQueue(MinecraftServer server, long deadline) {
+        if (server == null || BAN_QUEUE.isEmpty()) return false;
+
+        List<BanEnforcer.Ban> batch = new ArrayList<>(BAN_SLICE);
+        int drained = 0;
+        do {
+            BanEnforcer.Ban ban;
+            while (batch.size() < BAN_SLICE && (ban = BAN_QUEUE.poll()) != null) batch.add(ban);
+            for (BanEnforcer.Ban b : batch) onBanStored(b.id(), b.name(), b.untilMs());
+            ENFORCER.apply(server, batch);
+
+            long now = System.nanoTime();
+            for (BanEnforcer.Ban b : batch) HbMetrics.DEATH_TO_BAN.record(now - b.queuedNanos());
+            drained += batch.size();
+            batch.clear();
+        } while (!BAN_QUEUE.isEmpty() && System.nanoTime() < deadline);
+
+        HbMetrics.BANS_APPLIED.addAndGet(drained);
+        HbMetrics.BAN_DRAIN.record(drained);
+        return !BAN_QUEUE.isEmpty();
     }
 
     // =========================================================
@@ -650,22 +999,225 @@ public class HardcoreBanMod implements ModInitializer {
     // Pruning: remove expired + remove online players (NO CRASH)
     // =========================================================
 
-    private static void pruneExpiredAndOnline(MinecraftServer server, String why) {
+    // server thread
+    private static void putBan(UUID id, String name, long until) {
+        storeBan(id, name, until);
+        onBanStored(id, name, until);
+    }
+
+    // any thread: the store, the login filter and the completion names
+    private static void storeBan(UUID id, String name, long until) {
+        String before = BANNED_UNTIL.nameOf(id);
+        BANNED_UNTIL.put(id, name, until);
+        BANNED_FILTER.add(id);
+        BANNED_NAMES.replace(before, BANNED_UNTIL.nameOf(id));
+    }
+
+    // server thread: indexes derived from the store
+    private static void onBanStored(UUID id, String name, long until) {
+        EXPIRY.schedule(id, until);
+        if (BANNED_FILTER.saturated()) rebuildBanFilter();
+        HEADS.invalidate(id);
+        HEADS.prefetch(id, name); // warm the menu head before anyone opens it
+    }
+
+    private static boolean removeBan(UUID id) {
+        String name = BANNED_UNTIL.nameOf(id);
+        if (!BANNED_UNTIL.remove(id)) return false;
+        BANNED_NAMES.remove(name);
+        HEADS.invalidate(id);
+        if (SKINS.forget(id)) SKINS_FILE.markDirty();
+        return true;
+    }
+
+    private static long bannedUntil(UUID id) {
+        return BANNED_UNTIL.get(id, 0L);
+    }
+
+    // name typed by an admin -> banned uuid (side index first, then the stored display names)
+    private static UUID findBanned(String name) {
+        UUID id = NAMES.find(name);
+        if (id != null && BANNED_UNTIL.contains(id)) return id;
+        return BANNED_UNTIL.findByName(name);
+    }
+
+    private static void rebuildExpiryIndex() {
+        EXPIRY.clear();
+        BANNED_UNTIL.snapshot().forEach((hi, lo, name, until) -> EXPIRY.schedule(new UUID(hi, lo), until));
+    }
+
+    // removed bans stay set in the filter until this runs; they only cost a false positive meanwhile.
+    // A ban stored off-thread while this runs may have gone into the old filter, so the new one is
+    // topped up from a second snapshot taken after the swap.
+    private static void rebuildBanFilter() {
+        UuidBloomFilter next = new UuidBloomFilter(BANNED_UNTIL.size() * 2);
+        BANNED_UNTIL.snapshot().forEach((hi, lo, name, until) -> next.add(new UUID(hi, lo)));
+        BANNED_FILTER = next;
+        BANNED_UNTIL.snapshot().forEach((hi, lo, name, until) -> next.add(new UUID(hi, lo)));
+    }
+
+    private static void rebuildBannedNames() {
+        BANNED_NAMES.clear();
+        BANNED_UNTIL.snapshot().forEach((hi, lo, name, until) -> BANNED_NAMES.add(name));
+    }
+
+    // Expiry event: called exactly for the bans whose untilEpochMs has passed (at most max of them).
+    // Returns true if more are due.
+    private static boolean expireDue(long now, String why, List<StoreJournal.Record> removed, int max) {
+        boolean more = EXPIRY.pollExpired(now, HardcoreBanMod::bannedUntil, id -> {
+            String name = BANNED_UNTIL.nameOf(id);
+            removeBan(id);
+            removed.add(StoreJournal.unban(id, name));
+            HbMetrics.BANS_EXPIRED.incrementAndGet();
+            HbLog.debug("Prune ({}) expired removed name={}", why, name);
+        }, max);
+
+        if (!more && EXPIRY.needsRebuild(BANNED_UNTIL.size())) rebuildExpiryIndex();
+        return more;
+    }
+
+    // Tick task: O(1) peek every tick, so bans are lifted on the tick they run out, not on the next sweep
+    private static boolean expiryStep(long deadline) {
         long now = System.currentTimeMillis();
-        boolean changed = false;
+        if (EXPIRY.nextExpiry() > now) return false;
+
+        long start = System.nanoTime();
+        List<StoreJournal.Record> removed = new ArrayList<>();
+        boolean more;
+        do {
+            more = expireDue(now, "expiry", removed, EXPIRY_SLICE);
+        } while (more && System.nanoTime() < deadline);
+
+        STORAGE.append(removed);
+        HbMetrics.PRUNE.recordSince(start);
+        HbMetrics.PRUNE_SCANNED.record(removed.size());
+        return more;
+    }
 
-        // 1) remove expired (safe without server)
-        Iterator<Map.Entry<String, Long>> it = BANNED_UNTIL.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Long> e = it.next();
-            long until = (e.getValue() == null ? 0L : e.getValue());
-            if (until > 0L && until <= now) {
-                log("Prune (" + why + ") expired removed name=" + e.getKey());
-                it.remove();
-                changed = true;
+    // Tick task: every 30 s, drops bans of players who are online anyway, a slice of the player list at a time
+    private static boolean onlinePruneStep(MinecraftServer server, long deadline) {
+        if (server == null) return false;
+
+        if (onlineSweep == null) {
+            long now = System.currentTimeMillis();
+            if (now - lastPruneMs <= 30_000L) return false;
+            lastPruneMs = now;
+
+            PlayerManager pm = server.getPlayerManager();
+            if (pm == null || BANNED_UNTIL.isEmpty()) return false;
+            onlineSweep = new ArrayList<>(pm.getPlayerList());
+            onlineSweepAt = 0;
+        }
+
+        long start = System.nanoTime();
+        int from = onlineSweepAt;
+        List<StoreJournal.Record> removed = new ArrayList<>();
+        while (onlineSweepAt < onlineSweep.size()) {
+            ServerPlayerEntity sp = onlineSweep.get(onlineSweepAt++);
+            // skip players who left (or were just banned and kicked) since the sweep started
+            if (!sp.isDisconnected() && removeBan(sp.getUuid())) {
+                HbMetrics.BANS_PRUNED_ONLINE.incrementAndGet();
+                HbLog.debug("Prune (tick) online removed name={}", sp);
+                removed.add(StoreJournal.unban(sp.getUuid(), sp.getName().getString()));
+            }
+            if ((onlineSweepAt & 15) == 0 && System.nanoTime() >= deadline) break;
+        }
+        STORAGE.append(removed);
+        HbMetrics.PRUNE.recordSince(start);
+        HbMetrics.PRUNE_SCANNED.record(onlineSweepAt - from);
+
+        if (onlineSweepAt < onlineSweep.size()) return true;
+        onlineSweep = null;
+        return false;
+    }
+
+    // Tick task: changes other servers wrote to the replication dir, last writer wins per player (see ReplicationFeed)
+    private static boolean replicationStep(MinecraftServer server, long deadline) {
+        ReplicationFeed feed = FEED;
+        if (feed == null) return false;
+        feed.maintain();
+        if (server == null || feed.pending() == 0) return false;
+
+        List<BanEnforcer.Ban> bans = new ArrayList<>();
+        ReplicationFeed.Change c;
+        int changes = 0;
+        while ((c = feed.poll()) != null) {
+            List<StoreJournal.Record> applied = new ArrayList<>(c.txn().size());
+            for (StoreJournal.Record r : c.txn()) {
+                if (!feed.accept(c, r)) {
+                    HbMetrics.REPLICATION_STALE.incrementAndGet();
+                    continue;
+                }
+                applyChange(server, r, bans, "Died on " + c.node(), "node=" + c.node());
+                applied.add(r);
             }
+            LOCAL_STORAGE.append(applied); // not STORAGE: that would echo it back to the feed
+            feed.markApplied(c);
+            HbMetrics.REPLICATION_APPLIED.addAndGet(applied.size());
+            if ((++changes & 7) == 0 && System.nanoTime() >= deadline) break;
         }
 
+        ENFORCER.apply(server, bans);
+        return feed.pending() > 0;
+    }
+
+    // Tick task: what an external edit of the banned store changed (see FileBanStorage.readExternalEdit)
+    private static boolean storeEditStep(MinecraftServer server, long deadline) {
+        if (server == null || STORE_EDITS.isEmpty()) return false;
+
+        List<BanEnforcer.Ban> bans = new ArrayList<>();
+        List<StoreJournal.Record> applied = new ArrayList<>();
+        StoreJournal.Record r;
+        while ((r = STORE_EDITS.poll()) != null) {
+            applyChange(server, r, bans, "Banned by an edit to the ban list", "store edit");
+            applied.add(r);
+            if ((applied.size() & 63) == 0 && System.nanoTime() >= deadline) break;
+        }
+
+        STORAGE.append(applied); // journaled (so the next compaction keeps it) and replicated like any other change
+        HbMetrics.STORE_EDITS_APPLIED.addAndGet(applied.size());
+        ENFORCER.apply(server, bans);
+        return !STORE_EDITS.isEmpty();
+    }
+
+    // server thread: one change that did not start on this server (another node, or an edited file)
+    private static void applyChange(MinecraftServer server, StoreJournal.Record r, List<BanEnforcer.Ban> bans,
+                                    String reason, String from) {
+        switch (r.op()) {
+            case BAN -> {
+                if (r.id() == null) return;
+                NAMES.remember(r.id(), r.name());
+                long now = System.currentTimeMillis();
+                if (BannedStoreCodec.expired(r.until(), now)) {
+                    // the newest word on this player is a ban that has run out since
+                    if (removeBan(r.id())) ENFORCER.lift(server, r.id(), r.name());
+                    return;
+                }
+                putBan(r.id(), r.name(), r.until());
+                String duration = r.until() == 0L ? "" : Math.max(1L, (r.until() - now) / 1000L) + "s";
+                bans.add(new BanEnforcer.Ban(r.id(), r.name(), r.until(), duration, reason, System.nanoTime()));
+                HbLog.debug("Applied ban name={} from {}", r.name(), from);
+            }
+            case UNBAN -> {
+                if (r.id() != null && removeBan(r.id())) {
+                    ENFORCER.lift(server, r.id(), r.name());
+                    HbLog.debug("Applied unban name={} from {}", r.name(), from);
+                }
+            }
+            case POP_ADD -> PENDING_TOTEM_POP.add(r.name());
+            case POP_REMOVE -> PENDING_TOTEM_POP.remove(r.name());
+        }
+    }
+
+    private static void pruneExpiredAndOnline(MinecraftServer server, String why) {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        List<StoreJournal.Record> removed = new ArrayList<>();
+        int scanned = 0;
+
+        // 1) remove expired (safe without server)
+        expireDue(now, why, removed, Integer.MAX_VALUE);
+
         // 2) remove online players (server may exist but PlayerManager may not yet!)
         if (server != null && !BANNED_UNTIL.isEmpty()) {
             PlayerManager pm = null;
@@ -675,79 +1227,31 @@ public class HardcoreBanMod implements ModInitializer {
 
             if (pm == null) {
                 // This was your crash: PlayerManager not ready during early lifecycle.
-                log("Prune (" + why + ") skipped online-check because PlayerManager is null");
+                HbLog.debug("Prune ({}) skipped online-check because PlayerManager is null", why);
             } else {
                 for (ServerPlayerEntity sp : pm.getPlayerList()) {
+                    scanned++;
                     String name = sp.getName().getString();
-                    if (BANNED_UNTIL.remove(name) != null) {
-                        log("Prune (" + why + ") online removed name=" + name);
-                        changed = true;
+                    if (removeBan(sp.getUuid())) {
+                        HbMetrics.BANS_PRUNED_ONLINE.incrementAndGet();
+                        HbLog.debug("Prune ({}) online removed name={}", why, name);
+                        removed.add(StoreJournal.unban(sp.getUuid(), name));
                     }
                 }
             }
         }
 
-        if (changed) saveBannedStore();
+        STORAGE.append(removed);
+        HbMetrics.PRUNE.recordSince(start);
+        HbMetrics.PRUNE_SCANNED.record(scanned + removed.size());
     }
 
     // =========================================================
     // Duration parsing + remaining display
     // =========================================================
 
-    private static long parseDurationToMillis(String s) {
-        if (s == null) return -1L;
-
-        String str = s.trim().toLowerCase(Locale.ROOT);
-        if (str.isEmpty()) return -1L;
-
-        long total = 0L;
-        int i = 0;
-
-        while (i < str.length()) {
-            int start = i;
-            while (i < str.length() && Character.isDigit(str.charAt(i))) i++;
-            if (start == i) return -1L;
-
-            long num;
-            try {
-                num = Long.parseLong(str.substring(start, i));
-            } catch (NumberFormatException e) {
-                return -1L;
-            }
-
-            if (i >= str.length()) return -1L;
-
-            char unit = str.charAt(i++);
-            long mul;
-            switch (unit) {
-                case 's' -> mul = 1000L;
-                case 'm' -> mul = 60_000L;
-                case 'h' -> mul = 3_600_000L;
-                case 'd' -> mul = 86_400_000L;
-                case 'y' -> mul = 31_536_000_000L;
-                default -> { return -1L; }
-            }
-
-            total += num * mul;
-        }
-
-        return total;
-    }
-
-    private static String formatRemaining(long untilMs) {
-        long now = System.currentTimeMillis();
-        if (untilMs <= now) return "";
-
-        long ms = untilMs - now;
-
-        long s = ms / 1000L;
-        long days = s / 86400L; s %= 86400L;
-        long hours = s / 3600L; s %= 3600L;
-        long mins = s / 60L;
-
-        if (days > 0) return days + "d " + hours + "h";
-        if (hours > 0) return hours + "h " + mins + "m";
-        return mins + "m";
+    static String formatRemaining(long untilMs) {
+        return BanDurations.formatRemaining(untilMs, System.currentTimeMillis());
     }
 
     // =========================================================
@@ -758,8 +1262,7 @@ public class HardcoreBanMod implements ModInitializer {
         try {
             Files.createDirectories(MOD_CONFIG_DIR);
         } catch (IOException e) {
-            System.err.println("[HardcoreBan] Failed to create config dir: " + MOD_CONFIG_DIR);
-            e.printStackTrace();
+            HbLog.error("Failed to create config dir: " + MOD_CONFIG_DIR, e);
         }
     }
 
@@ -769,86 +1272,200 @@ public class HardcoreBanMod implements ModInitializer {
             return;
         }
 
+        ConfigFile cfg = readConfig();
+        if (cfg != null) {
+            applyLiveConfig(cfg);
+            metricsPort = cfg.metricsPort;
+            if (cfg.storage != null) storage = cfg.storage.trim().toLowerCase(Locale.ROOT);
+            if (cfg.storeFormat != null) storeFormat = cfg.storeFormat.trim().toLowerCase(Locale.ROOT);
+            if (cfg.replicationDir != null) replicationDir = cfg.replicationDir.trim();
+            if (cfg.nodeId != null) nodeId = cfg.nodeId.trim();
+        }
+        configWritten = FileReloader.Stamp.of(CONFIG_PATH);
+    }
+
+    // null if missing or unreadable (logged)
+    private static ConfigFile readConfig() {
         try (BufferedReader br = Files.newBufferedReader(CONFIG_PATH, StandardCharsets.UTF_8)) {
-            ConfigFile cfg = GSON.fromJson(br, CONFIG_TYPE);
-            if (cfg != null) {
-                if (cfg.banDuration != null && !cfg.banDuration.isBlank()) banDuration = cfg.banDuration;
-                DEBUG = cfg.debug;
-            }
+            return GSON.fromJson(br, CONFIG_TYPE);
         } catch (Exception e) {
-            System.err.println("[HardcoreBan] Failed to load config: " + CONFIG_PATH);
-            e.printStackTrace();
+            HbLog.error("Failed to load config: " + CONFIG_PATH, e);
+            return null;
+        }
+    }
+
+    // the fields that take effect without a restart
+    private static void applyLiveConfig(ConfigFile cfg) {
+        String base = (cfg.banDuration != null && !cfg.banDuration.isBlank()) ? cfg.banDuration : POLICY.base();
+        POLICY = BanPolicy.compile(base, cfg.escalationWindow, cfg.escalation);
+        HbLog.setDebug(cfg.debug);
+        ENFORCER.setMode(BanEnforcer.Mode.parse(cfg.enforcement));
+        SCHEDULER.setBudgetNanos(cfg.tickBudgetMicros * 1000L);
+        announceBans = cfg.announceBans;
+    }
+
+    // config.json edited while the server runs: parsed here (reload thread), applied on the server thread
+    private static void reloadConfig(MinecraftServer server) {
+        ConfigFile cfg = readConfig();
+        if (cfg == null || server == null) return;
+
+        server.execute(() -> {
+            try {
+                applyLiveConfig(cfg);
+            } catch (Exception e) {
+                HbLog.error("Failed to apply reloaded config: " + CONFIG_PATH, e);
+                return;
+            }
+            HbMetrics.CONFIG_RELOADS.incrementAndGet();
+
+            List<String> restart = new ArrayList<>();
+            if (cfg.metricsPort != metricsPort) restart.add("metricsPort");
+            if (cfg.storage != null && !cfg.storage.trim().equalsIgnoreCase(storage)) restart.add("storage");
+            if (cfg.storeFormat != null && !cfg.storeFormat.trim().equalsIgnoreCase(storeFormat)) restart.add("storeFormat");
+            if (cfg.replicationDir != null && !cfg.replicationDir.trim().equals(replicationDir)) restart.add("replicationDir");
+            if (cfg.nodeId != null && !cfg.nodeId.trim().equals(nodeId)) restart.add("nodeId");
+
+            HbLog.info("Reloaded config.json (ban " + POLICY.describe() + ")"
+                    + (POLICY.problems().isEmpty() ? "" : "; not applied as written: " + String.join("; ", POLICY.problems()))
+                    + (restart.isEmpty() ? "" : "; restart to apply " + String.join(", ", restart)));
+        });
+    }
+
+    private static void registerReloads() {
+        RELOADER = new FileReloader(MOD_CONFIG_DIR);
+        RELOADER.watch("config.json", Runnable::run, () -> configWritten, file -> reloadConfig(serverOrNull()));
+
+        // file storage only: with h2 the database is the store, and banned.json is just the one-time import
+        if (LOCAL_STORAGE instanceof FileBanStorage files) {
+            RELOADER.watch(files.bannedPath().getFileName().toString(), PersistenceThread::execute, files::bannedWritten, file -> {
+                try {
+                    STORE_EDITS.addAll(files.readExternalEdit());
+                } catch (IOException e) {
+                    // most likely caught half-written; the editor's next write triggers another reload
+                    HbLog.error("Failed to reload banned store: " + file, e);
+                }
+            });
         }
     }
 
     private static void saveConfig() {
         ensureConfigDir();
         ConfigFile cfg = new ConfigFile();
-        cfg.banDuration = banDuration;
-        cfg.debug = DEBUG;
+        BanPolicy policy = POLICY;
+        cfg.banDuration = policy.base();
+        cfg.escalationWindow = policy.window();
+        cfg.escalation = new ArrayList<>(policy.tiers());
+        cfg.debug = HbLog.isDebug();
+        cfg.enforcement = ENFORCER.mode().name().toLowerCase(Locale.ROOT);
+        cfg.tickBudgetMicros = SCHEDULER.budgetNanos() / 1000L;
+        cfg.metricsPort = metricsPort;
+        cfg.storage = storage;
+        cfg.storeFormat = storeFormat;
+        cfg.replicationDir = replicationDir;
+        cfg.nodeId = nodeId;
+        cfg.announceBans = announceBans;
 
         try (BufferedWriter bw = Files.newBufferedWriter(CONFIG_PATH, StandardCharsets.UTF_8)) {
             GSON.toJson(cfg, bw);
         } catch (Exception e) {
-            System.err.println("[HardcoreBan] Failed to save config: " + CONFIG_PATH);
-            e.printStackTrace();
+            HbLog.error("Failed to save config: " + CONFIG_PATH, e);
         }
+        configWritten = FileReloader.Stamp.of(CONFIG_PATH); // so the reloader does not read our own save back
     }
 
-    private static void loadBannedStore() {
-        if (!Files.exists(BANNED_PATH)) {
-            saveBannedStore();
-            return;
+    private static void openStorage() {
+        FileBanStorage files = new FileBanStorage(MOD_CONFIG_DIR, storeFormat, GSON, NAMES);
+        LOCAL_STORAGE = files;
+        if ("h2".equals(storage)) {
+            LOCAL_STORAGE = new JdbcBanStorage(MOD_CONFIG_DIR, files);
+        } else if (!"file".equals(storage)) {
+            HbLog.warn("Unknown storage '" + storage + "', using file");
         }
+        STORAGE = LOCAL_STORAGE;
 
-        try (BufferedReader br = Files.newBufferedReader(BANNED_PATH, StandardCharsets.UTF_8)) {
-            Map<String, Long> loaded = GSON.fromJson(br, BANNED_MAP_TYPE);
-            BANNED_UNTIL.clear();
-            if (loaded != null) BANNED_UNTIL.putAll(loaded);
-            System.out.println("[HardcoreBan] Loaded banned entries=" + BANNED_UNTIL.size());
-        } catch (Exception e) {
-            System.err.println("[HardcoreBan] Failed to load banned store: " + BANNED_PATH);
-            e.printStackTrace();
+        if (!replicationDir.isEmpty()) {
+            if (nodeId.isEmpty()) {
+                nodeId = "node-" + UUID.randomUUID().toString().substring(0, 8);
+                saveConfig();
+            }
+            FEED = new ReplicationFeed(Path.of(replicationDir), nodeId, MOD_CONFIG_DIR.resolve("replication-state.json"));
+            STORAGE = new ReplicatedBanStorage(LOCAL_STORAGE, FEED);
         }
+
+        try {
+            LOCAL_STORAGE.open(BANNED_UNTIL, PENDING_TOTEM_POP);
+        } catch (IOException e) {
+            // keep the server up with whatever was loaded; changes still reach the backend if it recovers
+            HbLog.error("Failed to open storage: " + STORAGE.describe(), e);
+        }
+        HbLog.debug("Storage backend={}", STORAGE.describe());
     }
 
-    private static void saveBannedStore() {
-        ensureConfigDir();
-        try (BufferedWriter bw = Files.newBufferedWriter(BANNED_PATH, StandardCharsets.UTF_8)) {
-            GSON.toJson(BANNED_UNTIL, bw);
+    private static void loadDeathStats() {
+        if (!Files.exists(DEATH_STATS_PATH)) return;
+
+        try (BufferedReader br = Files.newBufferedReader(DEATH_STATS_PATH, StandardCharsets.UTF_8)) {
+            STATS.load(GSON.fromJson(br, JsonObject.class));
         } catch (Exception e) {
-            System.err.println("[HardcoreBan] Failed to save banned store: " + BANNED_PATH);
-            e.printStackTrace();
+            HbLog.error("Failed to load death stats: " + DEATH_STATS_PATH, e);
         }
     }
 
-    private static void loadPendingTotemPop() {
-        if (!Files.exists(PENDING_POP_PATH)) {
-            savePendingTotemPop();
-            return;
+    private static void loadSkins() {
+        if (!Files.exists(SKINS_PATH)) return;
+
+        try (BufferedReader br = Files.newBufferedReader(SKINS_PATH, StandardCharsets.UTF_8)) {
+            SKINS.load(GSON.fromJson(br, JsonObject.class));
+        } catch (Exception e) {
+            HbLog.error("Failed to load skins: " + SKINS_PATH, e);
         }
+    }
 
-        try (BufferedReader br = Files.newBufferedReader(PENDING_POP_PATH, StandardCharsets.UTF_8)) {
-            Set<String> loaded = GSON.fromJson(br, STRING_SET_TYPE);
-            PENDING_TOTEM_POP.clear();
-            if (loaded != null) PENDING_TOTEM_POP.addAll(loaded);
-            log("Loaded pending totem pop list size=" + PENDING_TOTEM_POP.size());
+    private static void loadDeathCounts() {
+        if (!Files.exists(DEATH_COUNTS_PATH)) return;
+
+        try (BufferedReader br = Files.newBufferedReader(DEATH_COUNTS_PATH, StandardCharsets.UTF_8)) {
+            DEATHS.load(GSON.fromJson(br, JsonObject.class));
         } catch (Exception e) {
-            System.err.println("[HardcoreBan] Failed to load pending pop store: " + PENDING_POP_PATH);
-            e.printStackTrace();
+            HbLog.error("Failed to load death counts: " + DEATH_COUNTS_PATH, e);
         }
     }
 
-    private static void savePendingTotemPop() {
+    // human-readable copy of the store, whatever storeFormat is (I/O thread)
+    private static Path exportBannedJson() {
+        Path target = MOD_CONFIG_DIR.resolve("banned-export.json");
+        BanEntries snapshot = BANNED_UNTIL.snapshot();
+        PersistenceThread.execute(() -> {
+            try {
+                PersistenceThread.writeAtomically(target, tmp -> writeJson(BannedStoreCodec.toJson(snapshot), tmp));
+            } catch (IOException e) {
+                HbLog.error("Failed to export banned store: " + target, e);
+            }
+        });
+        return target;
+    }
+
+    // runs on the I/O thread with a snapshot, never with the live collections
+    private static void writeJson(Object snapshot, Path file) throws IOException {
         ensureConfigDir();
-        try (BufferedWriter bw = Files.newBufferedWriter(PENDING_POP_PATH, StandardCharsets.UTF_8)) {
-            GSON.toJson(PENDING_TOTEM_POP, bw);
-        } catch (Exception e) {
-            System.err.println("[HardcoreBan] Failed to save pending pop store: " + PENDING_POP_PATH);
-            e.printStackTrace();
+        try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            GSON.toJson(snapshot, bw);
         }
     }
 
+    // =========================================================
+    // Metrics (see HbMetrics)
+    // =========================================================
+
+    private static void registerGauges() {
+        HbMetrics.gauge("banned_players", "Entries in the banned store", BANNED_UNTIL::size);
+        HbMetrics.gauge("death_queue_depth", "Deaths waiting for the death pipeline", DEATH_PIPELINE::size);
+        HbMetrics.gauge("ban_queue_depth", "Bans waiting to be applied", BAN_QUEUE::size);
+        if (FEED != null) HbMetrics.gauge("replication_pending", "Changes from other servers not applied yet", FEED::pending);
+        HbMetrics.gauge("storage_backlog", "Changes not yet compacted (file) or committed (h2)", STORAGE::backlog);
+        HbMetrics.gauge("tick_budget_overruns_total", "Ticks where HardcoreBan work went over budget", SCHEDULER::totalOverruns);
+    }
+
     // =========================================================
     // Debug helpers
     // =========================================================
@@ -861,11 +1478,6 @@ public class HardcoreBanMod implements ModInitializer {
         return "CONSOLE";
     }
 
-    private static void log(String msg) {
-        if (!DEBUG) return;
-        System.out.println("[HardcoreBan][DEBUG] " + msg);
-    }
-
     private static MinecraftServer serverOrNull() {
         return SERVER;
     }
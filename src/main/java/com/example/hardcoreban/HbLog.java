@@ -0,0 +1,136 @@
+package com.example.hardcoreban;
+
+import net.minecraft.entity.Entity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Logging for the mod.
+ *
+ * {@link #info}, {@link #warn} and {@link #error} are always on and go straight to the server's logger
+ * (named HardcoreBan); they are for startup, configuration and failures, not per-event paths.
+ *
+ * Debug messages are parameterized ("{}" placeholders, fixed-arity overloads so no varargs array) or
+ * supplier-based, and nothing is formatted unless debug is on: a disabled call is one volatile read.
+ * Entities passed as arguments are rendered by name, so call sites can pass the player instead of
+ * building its name string up front. Enabled output goes through a bounded ring buffer to a background
+ * thread that writes to the server's logger; when the buffer is full messages are dropped and counted
+ * rather than blocking the caller.
+ */
+final class HbLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("HardcoreBan");
+
+    private static final BlockingQueue<String> RING = new ArrayBlockingQueue<>(8192);
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private static volatile boolean debug = false;
+    private static Thread writer;
+
+    private HbLog() {}
+
+    static boolean isDebug() {
+        return debug;
+    }
+
+    static synchronized void setDebug(boolean on) {
+        debug = on;
+        if (on && writer == null) {
+            writer = new Thread(HbLog::drainLoop, "HardcoreBan-Log");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    static void info(String msg) {
+        LOGGER.info(msg);
+    }
+
+    static void warn(String msg) {
+        LOGGER.warn(msg);
+    }
+
+    /**
+     * {@code t} may be null (no stack trace).
+     */
+    static void warn(String msg, Throwable t) {
+        LOGGER.warn(msg, t);
+    }
+
+    static void error(String msg, Throwable t) {
+        LOGGER.error(msg, t);
+    }
+
+    static void debug(String msg) {
+        if (!debug) return;
+        enqueue(msg);
+    }
+
+    static void debug(String fmt, Object a) {
+        if (!debug) return;
+        enqueue(format(fmt, a, null, null, null, 1));
+    }
+
+    static void debug(String fmt, Object a, Object b) {
+        if (!debug) return;
+        enqueue(format(fmt, a, b, null, null, 2));
+    }
+
+    static void debug(String fmt, Object a, Object b, Object c) {
+        if (!debug) return;
+        enqueue(format(fmt, a, b, c, null, 3));
+    }
+
+    static void debug(String fmt, Object a, Object b, Object c, Object d) {
+        if (!debug) return;
+        enqueue(format(fmt, a, b, c, d, 4));
+    }
+
+    static void debug(Supplier<String> msg) {
+        if (!debug) return;
+        enqueue(msg.get());
+    }
+
+    private static void enqueue(String msg) {
+        if (!RING.offer(msg)) DROPPED.incrementAndGet();
+    }
+
+    private static String format(String fmt, Object a, Object b, Object c, Object d, int argc) {
+        StringBuilder sb = new StringBuilder(fmt.length() + 32);
+        int arg = 0;
+        int from = 0;
+        int at;
+        while (arg < argc && (at = fmt.indexOf("{}", from)) >= 0) {
+            sb.append(fmt, from, at);
+            Object v = switch (arg++) {
+                case 0 -> a;
+                case 1 -> b;
+                case 2 -> c;
+                default -> d;
+            };
+            sb.append(v instanceof Entity e ? e.getName().getString() : String.valueOf(v));
+            from = at + 2;
+        }
+        return sb.append(fmt, from, fmt.length()).toString();
+    }
+
+    private static void drainLoop() {
+        while (true) {
+            String msg;
+            try {
+                msg = RING.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long dropped = DROPPED.getAndSet(0L);
+            if (dropped > 0) LOGGER.warn("[DEBUG] {} debug messages dropped (log buffer full)", dropped);
+            LOGGER.info("[DEBUG] {}", msg);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.hardcoreban;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and histograms for what the mod costs the server.
+ *
+ * Hot paths only touch the static fields below (atomic adds, no allocation). Everything is rendered
+ * on demand, for {@code /hardcoreban stats} and for the optional localhost exporter (MetricsExporter),
+ * in Prometheus text format.
+ */
+final class HbMetrics {
+
+    private record Counter(String name, String help, AtomicLong value) {}
+    private record Gauge(String name, String help, LongSupplier value) {}
+    private record Histogram(String name, String help, boolean nanos, LatencyHistogram value) {}
+
+    private static final List<Counter> COUNTERS = new ArrayList<>();
+    private static final List<Gauge> GAUGES = new ArrayList<>();
+    private static final List<Histogram> HISTOGRAMS = new ArrayList<>();
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    // latencies (nanoseconds)
+    static final LatencyHistogram DEATH_TO_BAN = timer("death_to_ban", "Death hook to ban applied");
+    static final LatencyHistogram STORE_SAVE = timer("store_save", "banned.json snapshot write (I/O thread)");
+    static final LatencyHistogram STORE_LOAD = timer("store_load", "banned store load + journal replay at startup");
+    static final LatencyHistogram PRUNE = timer("prune", "Expiry/online prune pass");
+    static final LatencyHistogram GUI_OPEN = timer("gui_open", "Revive menu open");
+    static final LatencyHistogram OPS_RELOAD = timer("ops_reload", "ops.json reload (background thread)");
+    static final LatencyHistogram DEATH_DEDUPE = timer("death_dedupe", "Death pipeline: repeated death check");
+    static final LatencyHistogram DEATH_POLICY = timer("death_policy", "Death pipeline: ban length and cause");
+    static final LatencyHistogram DEATH_PERSIST = timer("death_persist", "Death pipeline: banned store, history and stats");
+    static final LatencyHistogram DEATH_ENFORCE = timer("death_enforce", "Death pipeline: hand-off to the enforcer");
+    static final LatencyHistogram DEATH_BROADCAST = timer("death_broadcast", "Death pipeline: ban announcement");
+
+    // sizes
+    static final LatencyHistogram PRUNE_SCANNED = sizes("prune_scanned", "Entries examined per prune pass");
+    static final LatencyHistogram BAN_DRAIN = sizes("ban_drain", "Queued bans applied per tick");
+
+    // events
+    static final AtomicLong DEATHS_QUEUED = counter("deaths_queued", "Deaths captured by the death hook or the API");
+    static final AtomicLong DEATHS_DEDUPED = counter("deaths_deduped", "Deaths dropped as a repeat of one already counted");
+    static final AtomicLong DEATHS_OVERFLOWED = counter("deaths_overflowed", "Deaths that found the death queue full");
+    static final AtomicLong BANS_QUEUED = counter("bans_queued", "Deaths turned into bans");
+    static final AtomicLong BANS_APPLIED = counter("bans_applied", "Bans applied by the enforcer");
+    static final AtomicLong BANS_EXPIRED = counter("bans_expired", "Bans lifted by expiry");
+    static final AtomicLong BANS_PRUNED_ONLINE = counter("bans_pruned_online", "Bans dropped because the player was online");
+    static final AtomicLong REVIVES = counter("revives", "Players revived");
+    static final AtomicLong LOGINS_REJECTED = counter("logins_rejected", "Logins refused for an active ban");
+    static final AtomicLong LOGIN_FILTER_FALSE_POSITIVES = counter("login_filter_false_positives",
+            "Login Bloom filter hits that were not banned");
+    static final AtomicLong REPLICATION_APPLIED = counter("replication_applied", "Changes applied from other servers");
+    static final AtomicLong REPLICATION_STALE = counter("replication_stale",
+            "Changes from other servers dropped as older than the local state");
+    static final AtomicLong STORE_EDITS_APPLIED = counter("store_edits_applied",
+            "Changes picked up from edits to the banned store file");
+    static final AtomicLong CONFIG_RELOADS = counter("config_reloads", "Edits to config.json applied without a restart");
+
+    private HbMetrics() {}
+
+    private static LatencyHistogram timer(String name, String help) {
+        LatencyHistogram h = new LatencyHistogram();
+        HISTOGRAMS.add(new Histogram(name + "_seconds", help, true, h));
+        return h;
+    }
+
+    private static LatencyHistogram sizes(String name, String help) {
+        LatencyHistogram h = new LatencyHistogram();
+        HISTOGRAMS.add(new Histogram(name, help, false, h));
+        return h;
+    }
+
+    private static AtomicLong counter(String name, String help) {
+        AtomicLong c = new AtomicLong();
+        COUNTERS.add(new Counter(name + "_total", help, c));
+        return c;
+    }
+
+    /**
+     * Registers a value sampled at render time (store size, journal length, ...). Call once, at startup.
+     */
+    static synchronized void gauge(String name, String help, LongSupplier value) {
+        GAUGES.add(new Gauge(name, help, value));
+    }
+
+    /**
+     * Short human-readable summary for chat.
+     */
+    static synchronized List<String> summary() {
+        List<String> out = new ArrayList<>();
+        for (Gauge g : GAUGES) out.add(g.name() + ": " + g.value().getAsLong());
+        for (Counter c : COUNTERS) out.add(c.name() + ": " + c.value().get());
+        for (Histogram h : HISTOGRAMS) {
+            LatencyHistogram v = h.value();
+            if (v.count() == 0L) continue;
+            out.add(h.name() + ": n=" + v.count()
+                    + " p50=" + human(v.quantile(0.5), h.nanos())
+                    + " p99=" + human(v.quantile(0.99), h.nanos())
+                    + " max=" + human(v.max(), h.nanos()));
+        }
+        return out;
+    }
+
+    static synchronized String prometheus() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Gauge g : GAUGES) {
+            header(sb, g.name(), g.help(), "gauge");
+            sb.append("hardcoreban_").append(g.name()).append(' ').append(g.value().getAsLong()).append('\n');
+        }
+        for (Counter c : COUNTERS) {
+            header(sb, c.name(), c.help(), "counter");
+            sb.append("hardcoreban_").append(c.name()).append(' ').append(c.value().get()).append('\n');
+        }
+        for (Histogram h : HISTOGRAMS) {
+            LatencyHistogram v = h.value();
+            header(sb, h.name(), h.help(), "summary");
+            for (double q : QUANTILES) {
+                sb.append("hardcoreban_").append(h.name()).append("{quantile=\"").append(q).append("\"} ")
+                        .append(scaled(v.quantile(q), h.nanos())).append('\n');
+            }
+            sb.append("hardcoreban_").append(h.name()).append("_sum ").append(scaled(v.sum(), h.nanos())).append('\n');
+            sb.append("hardcoreban_").append(h.name()).append("_count ").append(v.count()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String help, String type) {
+        sb.append("# HELP hardcoreban_").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE hardcoreban_").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String scaled(long v, boolean nanos) {
+        return nanos ? String.format(Locale.ROOT, "%.9f", v / 1e9) : Long.toString(v);
+    }
+
+    private static String human(long v, boolean nanos) {
+        if (!nanos) return Long.toString(v);
+        if (v >= 1_000_000_000L) return String.format(Locale.ROOT, "%.2fs", v / 1e9);
+        if (v >= 1_000_000L) return String.format(Locale.ROOT, "%.2fms", v / 1e6);
+        return String.format(Locale.ROOT, "%.1fus", v / 1e3);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.hardcoreban;
+
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.NbtComponent;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtOps;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU of finished player-head stacks for the revive menu, keyed by UUID.
+ *
+ * Building a head (NBT tree, ItemStack.CODEC parse, SkullOwner custom data) happens on a background
+ * thread; the server thread only copies cached stacks. The profile carries id, name and, when
+ * {@link SkinCache} captured it, the signed "textures" property, so clients render the skin straight
+ * from the stack instead of each looking it up. Entries are dropped only when that player's ban changes.
+ */
+final class HeadCache {
+
+    private static final ExecutorService RESOLVER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "HardcoreBan-Heads");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private record Resolved(UUID id, int generation, ItemStack head) {}
+
+    private final int capacity;
+    private final Function<UUID, SkinCache.Texture> skins;
+    private final Map<UUID, ItemStack> lru;
+
+    // server thread only: the generation of the one build per id whose result is still wanted
+    private final Map<UUID, Integer> inFlight = new HashMap<>();
+    private int generation;
+    // filled by the resolver, drained on the server thread
+    private final Queue<Resolved> resolved = new ConcurrentLinkedQueue<>();
+
+    HeadCache(int capacity, Function<UUID, SkinCache.Texture> skins) {
+        this.capacity = capacity;
+        this.skins = skins;
+        this.lru = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ItemStack> eldest) {
+                return size() > HeadCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Copy of the cached head, or null after queueing it for a background build.
+     */
+    ItemStack get(UUID id, String name) {
+        ItemStack cached = lru.get(id);
+        if (cached != null) return cached.copy();
+        prefetch(id, name);
+        return null;
+    }
+
+    void prefetch(UUID id, String name) {
+        if (lru.containsKey(id) || inFlight.containsKey(id)) return;
+        int gen = ++generation;
+        inFlight.put(id, gen);
+        SkinCache.Texture skin = skins.apply(id);
+        RESOLVER.execute(() -> resolved.add(new Resolved(id, gen, build(id, name, skin))));
+    }
+
+    void invalidate(UUID id) {
+        lru.remove(id);
+        inFlight.remove(id); // a build still running for the old ban no longer matches and is dropped in drainResolved
+    }
+
+    /**
+     * Server thread: moves finished builds into the cache. Returns how many landed.
+     */
+    int drainResolved() {
+        int landed = 0;
+        Resolved r;
+        while ((r = resolved.poll()) != null) {
+            if (inFlight.remove(r.id(), r.generation())) {
+                lru.put(r.id(), r.head());
+                landed++;
+            }
+        }
+        return landed;
+    }
+
+    // package-private for the head benchmark in src/jmh; skin may be null (the client then looks it up)
+    static ItemStack build(UUID id, String name, SkinCache.Texture skin) {
+        ItemStack viaCodec = tryBuildHeadViaCodec(id, name, skin);
+        ItemStack head = (viaCodec != null && !viaCodec.isEmpty()) ? viaCodec : new ItemStack(Items.PLAYER_HEAD);
+
+        NbtCompound skullOwner = new NbtCompound();
+        skullOwner.putString("Name", name);
+        NbtCompound root = new NbtCompound();
+        root.put("SkullOwner", skullOwner);
+        head.set(DataComponentTypes.CUSTOM_DATA, NbtComponent.of(root));
+
+        return head;
+    }
+
+    private static ItemStack tryBuildHeadViaCodec(UUID id, String name, SkinCache.Texture skin) {
+        try {
+            NbtCompound item = new NbtCompound();
+            item.putString("id", "minecraft:player_head");
+            item.putInt("count", 1);
+
+            NbtCompound components = new NbtCompound();
+            NbtCompound profile = new NbtCompound();
+            profile.putString("name", name);
+            profile.putIntArray("id", toIntArray(id));
+            if (skin != null) {
+                NbtCompound textures = new NbtCompound();
+                textures.putString("name", "textures");
+                textures.putString("value", skin.value());
+                if (skin.signature() != null) textures.putString("signature", skin.signature());
+                NbtList properties = new NbtList();
+                properties.add(textures);
+                profile.put("properties", properties);
+            }
+            components.put("minecraft:profile", profile);
+
+            item.put("components", components);
+
+            var dataResult = ItemStack.CODEC.parse(NbtOps.INSTANCE, item);
+            var opt = dataResult.result();
+            if (opt.isPresent()) return opt.get();
+
+            HbLog.debug(() -> "ItemStack.CODEC parse failed for name=" + name + " error=" +
+                    dataResult.error().map(e -> e.message()).orElse("unknown"));
+            return null;
+        } catch (Throwable t) {
+            HbLog.debug("tryBuildHeadViaCodec exception: {} {}", t.getClass().getSimpleName(), t.getMessage());
+            return null;
+        }
+    }
+
+    // same layout as the vanilla int-array UUID codec
+    private static int[] toIntArray(UUID id) {
+        long hi = id.getMostSignificantBits();
+        long lo = id.getLeastSignificantBits();
+        return new int[] {(int) (hi >> 32), (int) hi, (int) (lo >> 32), (int) lo};
+    }
+}
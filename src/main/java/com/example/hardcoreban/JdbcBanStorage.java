@@ -0,0 +1,500 @@
+package com.example.hardcoreban;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * config.storage = "h2": an embedded H2 database (config/HardcoreBan/hardcoreban.mv.db).
+ *
+ * One connection, owned by its own thread. Changes are queued and committed in batches: everything queued
+ * since the last commit is folded to the last change per player / name and written with batched prepared
+ * statements in one transaction. A batch whose commit fails is kept and retried with backoff, with later
+ * changes folded on top, so a locked or full disk delays changes but never drops them. Bans are indexed by expiry (startup loads only live bans and deletes the
+ * rest) and deaths by player, so history is answered by an index lookup and never held in memory.
+ *
+ * On first start with an empty database, the file backend's banned store, pending pops and death history are imported.
+ */
+final class JdbcBanStorage implements BanStorage {
+
+    private static final int SCHEMA_VERSION = 2;
+    private static final int MAX_NAME = 64;
+    private static final int MAX_REASON = 1024;
+    private static final int IMPORT_BATCH = 1000;
+    private static final long RETRY_MIN_MS = 250L;
+    private static final long RETRY_MAX_MS = 30_000L;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS meta (k VARCHAR(64) PRIMARY KEY, v VARCHAR(256))",
+            "CREATE TABLE IF NOT EXISTS bans (uuid UUID PRIMARY KEY, name VARCHAR(64), until_ms BIGINT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS bans_until ON bans (until_ms)",
+            "CREATE TABLE IF NOT EXISTS pending_pops (name VARCHAR(64) PRIMARY KEY)",
+            "CREATE TABLE IF NOT EXISTS deaths (id BIGINT AUTO_INCREMENT PRIMARY KEY, uuid UUID NOT NULL,"
+                    + " name VARCHAR(64), at_ms BIGINT NOT NULL, until_ms BIGINT NOT NULL, reason VARCHAR(1024))",
+            "CREATE INDEX IF NOT EXISTS deaths_player ON deaths (uuid, at_ms)",
+            // schema 2: where the player died
+            "ALTER TABLE deaths ADD COLUMN IF NOT EXISTS dimension VARCHAR(64)",
+            "ALTER TABLE deaths ADD COLUMN IF NOT EXISTS x INT DEFAULT 0 NOT NULL",
+            "ALTER TABLE deaths ADD COLUMN IF NOT EXISTS y INT DEFAULT 0 NOT NULL",
+            "ALTER TABLE deaths ADD COLUMN IF NOT EXISTS z INT DEFAULT 0 NOT NULL",
+    };
+
+    private static final String UPSERT_BAN = "MERGE INTO bans (uuid, name, until_ms) KEY (uuid) VALUES (?, ?, ?)";
+    private static final String DELETE_BAN = "DELETE FROM bans WHERE uuid = ?";
+    private static final String UPSERT_POP = "MERGE INTO pending_pops (name) KEY (name) VALUES (?)";
+    private static final String DELETE_POP = "DELETE FROM pending_pops WHERE name = ?";
+    private static final String INSERT_DEATH =
+            "INSERT INTO deaths (uuid, name, at_ms, until_ms, reason, dimension, x, y, z) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_LIVE_BANS = "SELECT uuid, name, until_ms FROM bans WHERE until_ms = 0 OR until_ms > ?";
+    private static final String DELETE_EXPIRED_BANS = "DELETE FROM bans WHERE until_ms <> 0 AND until_ms <= ?";
+    private static final String SELECT_HISTORY =
+            "SELECT name, reason, dimension, x, y, z, at_ms, until_ms FROM deaths WHERE uuid = ? ORDER BY at_ms DESC LIMIT ?";
+
+    private final String url;
+    private final FileBanStorage importFrom;
+
+    // the db thread; shut down by close() and started again if the storage is used after that
+    private ScheduledThreadPoolExecutor db = newDbThread();
+
+    private final Queue<List<StoreJournal.Record>> queued = new ConcurrentLinkedQueue<>();
+    private final Queue<Death> queuedDeaths = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+
+    // only touched on the db thread; null until opened and after close()
+    private Connection conn;
+
+    // db thread: the batch whose last commit failed, folded on top of by the next one until it goes through
+    private final Map<UUID, StoreJournal.Record> unsavedBans = new LinkedHashMap<>();
+    private final Map<String, StoreJournal.Record> unsavedPops = new LinkedHashMap<>();
+    private final List<Death> unsavedDeaths = new ArrayList<>();
+    private int unsavedTaken;
+    private long retryDelayMs;
+
+    JdbcBanStorage(Path dir, FileBanStorage importFrom) {
+        this.url = "jdbc:h2:file:" + dir.resolve("hardcoreban").toAbsolutePath();
+        this.importFrom = importFrom;
+    }
+
+    @Override
+    public void open(BanStore bans, Set<String> pendingPops) throws IOException {
+        try {
+            Class.forName("org.h2.Driver");
+            boolean empty = call(() -> {
+                try (Statement st = connection().createStatement()) {
+                    for (String ddl : SCHEMA) st.execute(ddl);
+                }
+                conn.commit();
+                return !hasMeta("schema_version");
+            });
+
+            if (empty && importFrom.hasData()) {
+                importFrom.open(bans, pendingPops);
+                run(() -> importAll(bans.snapshot(), pendingPops));
+                int deaths = call(this::importDeaths);
+                HbLog.info("Imported banned entries=" + bans.size() + ", pending pops="
+                        + pendingPops.size() + " and deaths=" + deaths + " into " + url + " (files kept, no longer written)");
+            } else {
+                run(() -> load(bans, pendingPops));
+                HbLog.info("Loaded banned entries=" + bans.size() + " from " + url);
+            }
+            run(() -> putMeta("schema_version", Integer.toString(SCHEMA_VERSION)));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to open " + url, e);
+        }
+    }
+
+    @Override
+    public void append(List<StoreJournal.Record> txn) {
+        if (txn.isEmpty()) return;
+        queued.add(List.copyOf(txn));
+        backlog.addAndGet(txn.size());
+        scheduleCommit();
+    }
+
+    @Override
+    public void applyAndAppend(Runnable change, StoreJournal.Record... txn) {
+        // no snapshots to race with: rows are only ever written from the queue
+        change.run();
+        append(txn);
+    }
+
+    @Override
+    public void recordDeath(Death death) {
+        queuedDeaths.add(death);
+        backlog.incrementAndGet();
+        scheduleCommit();
+    }
+
+    @Override
+    public List<Death> history(UUID id, int limit) throws IOException {
+        if (limit <= 0) return List.of();
+        try {
+            return call(() -> {
+                List<Death> out = new ArrayList<>();
+                try (PreparedStatement ps = connection().prepareStatement(SELECT_HISTORY)) {
+                    ps.setObject(1, id);
+                    ps.setInt(2, limit);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            long at = rs.getLong(7);
+                            out.add(new Death(id, rs.getString(1), rs.getString(2), rs.getString(3),
+                                    rs.getInt(4), rs.getInt(5), rs.getInt(6), at, rs.getLong(8) - at));
+                        }
+                    }
+                }
+                conn.commit();
+                return out;
+            });
+        } catch (Exception e) {
+            throw new IOException("Death history query failed for " + id, e);
+        }
+    }
+
+    @Override
+    public void maintain() {
+        // commits are scheduled by append, nothing to do per tick
+    }
+
+    @Override
+    public int backlog() {
+        return backlog.get();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            db().submit(this::commitQueued).get(10_000L, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            HbLog.error("Timed out waiting for database writes", e);
+        }
+    }
+
+    /**
+     * Commits what is queued, closes the connection (H2 shuts the database down cleanly with the last one)
+     * and stops the db thread.
+     */
+    @Override
+    public void close() {
+        ExecutorService thread = db();
+        try {
+            thread.submit(() -> {
+                commitQueued();
+                if (unsavedTaken > 0) {
+                    HbLog.warn("Database still failing at shutdown, " + unsavedTaken
+                            + " changes not written: " + url);
+                }
+                if (conn != null) {
+                    try {
+                        conn.close();
+                    } catch (SQLException e) {
+                        HbLog.error("Failed to close database: " + url, e);
+                    }
+                    conn = null;
+                }
+            }).get(10_000L, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            HbLog.error("Timed out closing database: " + url, e);
+        }
+
+        thread.shutdown();
+        try {
+            if (!thread.awaitTermination(10_000L, TimeUnit.MILLISECONDS)) thread.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "h2 (" + url + ")";
+    }
+
+    // =========================================================
+    // Writes (db thread)
+    // =========================================================
+
+    private void scheduleCommit() {
+        if (commitScheduled.compareAndSet(false, true)) db().execute(this::commitQueued);
+    }
+
+    private void commitQueued() {
+        commitScheduled.set(false);
+
+        // last change per key wins: the records are idempotent set/remove operations, so newer changes
+        // simply overwrite what a failed commit left behind
+        Map<UUID, StoreJournal.Record> bans = unsavedBans;
+        Map<String, StoreJournal.Record> pops = unsavedPops;
+        List<Death> deaths = unsavedDeaths;
+        int taken = unsavedTaken;
+
+        List<StoreJournal.Record> txn;
+        while ((txn = queued.poll()) != null) {
+            taken += txn.size();
+            for (StoreJournal.Record r : txn) {
+                switch (r.op()) {
+                    // id-less records only exist in old journals, which are imported through the file backend
+                    case BAN, UNBAN -> { if (r.id() != null) bans.put(r.id(), r); }
+                    case POP_ADD, POP_REMOVE -> pops.put(r.name(), r);
+                }
+            }
+        }
+        Death d;
+        while ((d = queuedDeaths.poll()) != null) {
+            deaths.add(d);
+            taken++;
+        }
+        if (taken == 0) return;
+
+        long start = System.nanoTime();
+        try (PreparedStatement upsertBan = connection().prepareStatement(UPSERT_BAN);
+             PreparedStatement deleteBan = conn.prepareStatement(DELETE_BAN);
+             PreparedStatement upsertPop = conn.prepareStatement(UPSERT_POP);
+             PreparedStatement deletePop = conn.prepareStatement(DELETE_POP);
+             PreparedStatement insertDeath = conn.prepareStatement(INSERT_DEATH)) {
+
+            for (StoreJournal.Record r : bans.values()) {
+                if (r.op() == StoreJournal.Op.BAN) {
+                    upsertBan.setObject(1, r.id());
+                    upsertBan.setString(2, clip(r.name(), MAX_NAME));
+                    upsertBan.setLong(3, r.until());
+                    upsertBan.addBatch();
+                } else {
+                    deleteBan.setObject(1, r.id());
+                    deleteBan.addBatch();
+                }
+            }
+            for (StoreJournal.Record r : pops.values()) {
+                PreparedStatement ps = r.op() == StoreJournal.Op.POP_ADD ? upsertPop : deletePop;
+                ps.setString(1, clip(r.name(), MAX_NAME));
+                ps.addBatch();
+            }
+            for (Death death : deaths) {
+                bindDeath(insertDeath, death);
+                insertDeath.addBatch();
+            }
+
+            upsertBan.executeBatch();
+            deleteBan.executeBatch();
+            upsertPop.executeBatch();
+            deletePop.executeBatch();
+            insertDeath.executeBatch();
+            conn.commit();
+            HbMetrics.STORE_SAVE.recordSince(start);
+
+            bans.clear();
+            pops.clear();
+            deaths.clear();
+            unsavedTaken = 0;
+            if (retryDelayMs > 0L) HbLog.info("Database commit went through after retrying: " + url);
+            retryDelayMs = 0L;
+            backlog.addAndGet(-taken);
+        } catch (SQLException e) {
+            unsavedTaken = taken;
+            rollbackOrReconnect();
+            boolean first = retryDelayMs == 0L;
+            retryDelayMs = first ? RETRY_MIN_MS : Math.min(RETRY_MAX_MS, retryDelayMs * 2L);
+            // the stack trace only for the first failure of a run, not for every retry
+            HbLog.warn("Database commit failed, retrying " + taken + " changes in "
+                    + retryDelayMs + " ms: " + url, first ? e : null);
+            if (commitScheduled.compareAndSet(false, true)) {
+                db().schedule(this::commitQueued, retryDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // after a failed commit: undo the partial batch, or drop a broken connection so the retry opens a new one
+    private void rollbackOrReconnect() {
+        if (conn == null) return;
+        try {
+            conn.rollback();
+            if (conn.isValid(1)) return;
+        } catch (SQLException ignored) {}
+        try {
+            conn.close();
+        } catch (SQLException ignored) {}
+        conn = null;
+    }
+
+    private void importAll(BanEntries bans, Set<String> pendingPops) throws SQLException {
+        try (PreparedStatement upsertBan = conn.prepareStatement(UPSERT_BAN);
+             PreparedStatement upsertPop = conn.prepareStatement(UPSERT_POP)) {
+            SQLException[] failed = {null};
+            bans.forEach((hi, lo, name, until) -> {
+                try {
+                    upsertBan.setObject(1, new UUID(hi, lo));
+                    upsertBan.setString(2, clip(name, MAX_NAME));
+                    upsertBan.setLong(3, until);
+                    upsertBan.addBatch();
+                } catch (SQLException e) {
+                    failed[0] = e;
+                }
+            });
+            if (failed[0] != null) throw failed[0];
+            for (String name : pendingPops) {
+                upsertPop.setString(1, clip(name, MAX_NAME));
+                upsertPop.addBatch();
+            }
+            upsertBan.executeBatch();
+            upsertPop.executeBatch();
+            conn.commit();
+        }
+    }
+
+    // the file backend's deaths/ (already holding any old deaths.ndjson), committed every IMPORT_BATCH rows
+    private int importDeaths() throws Exception {
+        try (PreparedStatement insertDeath = conn.prepareStatement(INSERT_DEATH)) {
+            int[] pending = {0};
+            int n = importFrom.forEachDeath(death -> {
+                try {
+                    bindDeath(insertDeath, death);
+                    insertDeath.addBatch();
+                    if (++pending[0] == IMPORT_BATCH) {
+                        insertDeath.executeBatch();
+                        pending[0] = 0;
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            insertDeath.executeBatch();
+            conn.commit();
+            return n;
+        } catch (IllegalStateException e) {
+            conn.rollback();
+            throw e.getCause() instanceof SQLException sql ? sql : e;
+        }
+    }
+
+    // =========================================================
+    // Reads (db thread)
+    // =========================================================
+
+    private void load(BanStore bans, Set<String> pendingPops) throws SQLException {
+        long now = System.currentTimeMillis();
+
+        // rows go straight into the live store
+        bans.clear();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_LIVE_BANS)) {
+            ps.setLong(1, now);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) bans.put(rs.getObject(1, UUID.class), rs.getString(2), rs.getLong(3));
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_EXPIRED_BANS)) {
+            ps.setLong(1, now);
+            int expired = ps.executeUpdate();
+            if (expired > 0) HbLog.debug("Dropped expired banned rows={}", expired);
+        }
+
+        pendingPops.clear();
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT name FROM pending_pops")) {
+            while (rs.next()) pendingPops.add(rs.getString(1));
+        }
+        conn.commit();
+    }
+
+    private boolean hasMeta(String key) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM meta WHERE k = ?")) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void putMeta(String key, String value) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("MERGE INTO meta (k, v) KEY (k) VALUES (?, ?)")) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+        conn.commit();
+    }
+
+    // =========================================================
+    // Helpers
+    // =========================================================
+
+    @FunctionalInterface
+    private interface SqlTask<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws Exception;
+    }
+
+    // runs on the db thread and waits (startup and history queries only)
+    private <T> T call(SqlTask<T> task) throws Exception {
+        return db().submit(task::run).get(30_000L, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized ScheduledThreadPoolExecutor db() {
+        if (db.isShutdown()) db = newDbThread();
+        return db;
+    }
+
+    private static ScheduledThreadPoolExecutor newDbThread() {
+        ScheduledThreadPoolExecutor thread = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "HardcoreBan-DB");
+            t.setDaemon(true);
+            return t;
+        });
+        thread.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // close() does the last commit itself
+        return thread;
+    }
+
+    // db thread: opened on first use, and again after close()
+    private Connection connection() throws SQLException {
+        if (conn == null) {
+            conn = DriverManager.getConnection(url);
+            conn.setAutoCommit(false);
+        }
+        return conn;
+    }
+
+    private void run(SqlAction action) throws Exception {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static void bindDeath(PreparedStatement insertDeath, Death death) throws SQLException {
+        insertDeath.setObject(1, death.id());
+        insertDeath.setString(2, clip(death.name(), MAX_NAME));
+        insertDeath.setLong(3, death.atMs());
+        insertDeath.setLong(4, death.atMs() + death.banMs());
+        insertDeath.setString(5, clip(death.cause(), MAX_REASON));
+        insertDeath.setString(6, clip(death.dimension(), MAX_NAME));
+        insertDeath.setInt(7, death.x());
+        insertDeath.setInt(8, death.y());
+        insertDeath.setInt(9, death.z());
+    }
+
+    private static String clip(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+}
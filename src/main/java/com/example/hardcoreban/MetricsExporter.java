@@ -0,0 +1,62 @@
+package com.example.hardcoreban;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional Prometheus scrape endpoint ({@code GET /metrics}), bound to 127.0.0.1 only.
+ * Off unless "metricsPort" is set in config.json; served from its own daemon thread.
+ */
+final class MetricsExporter {
+
+    private HttpServer http;
+    private ExecutorService executor;
+
+    synchronized void start(int port) {
+        if (http != null || port <= 0) return;
+
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            s.createContext("/metrics", exchange -> {
+                try (exchange) {
+                    if (!"GET".equals(exchange.getRequestMethod())) {
+                        exchange.sendResponseHeaders(405, -1);
+                        return;
+                    }
+                    byte[] body = HbMetrics.prometheus().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(body);
+                    }
+                }
+            });
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "HardcoreBan-Metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            s.setExecutor(executor);
+            s.start();
+            http = s;
+            HbLog.info("Metrics exporter listening on http://127.0.0.1:" + port + "/metrics");
+        } catch (IOException e) {
+            HbLog.error("Failed to start metrics exporter on port " + port, e);
+        }
+    }
+
+    synchronized void stop() {
+        if (http == null) return;
+        http.stop(0);
+        http = null;
+        executor.shutdown();
+        executor = null;
+    }
+}
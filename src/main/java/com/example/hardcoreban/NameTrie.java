@@ -0,0 +1,222 @@
+package com.example.hardcoreban;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Banned player names for tab completion, as a radix trie over the lower-cased names.
+ *
+ * Kept up to date on every ban and unban (HardcoreBanMod.storeBan / removeBan), so completing a prefix
+ * walks at most one node per edge of the prefix and then visits only the names it hands out, in
+ * alphabetical order, up to a limit: the cost does not depend on how many players are banned, and
+ * nothing is allocated besides what the consumer does with the names. Names that differ only in case
+ * share one entry, shown as the earliest added of those still there. Thread-safe; every method is a short
+ * critical section.
+ */
+final class NameTrie {
+
+    private static final Node[] NO_KIDS = new Node[0];
+    private static final String[] NO_NAMES = new String[0];
+
+    private static final class Node {
+        String label;               // edge from the parent, lower case ("" for the root)
+        Node[] kids = NO_KIDS;      // sorted by the first char of their label
+        int kidCount;
+        String[] names = NO_NAMES;  // the names ending here, in the order added (case variants, repeats)
+        int refs;                   // how many of them
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int find(char c) {
+            int lo = 0;
+            int hi = kidCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = kids[mid].label.charAt(0);
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void insertKid(int at, Node kid) {
+            if (kidCount == kids.length) {
+                Node[] grown = new Node[Math.max(2, kidCount * 2)];
+                System.arraycopy(kids, 0, grown, 0, kidCount);
+                kids = grown;
+            }
+            System.arraycopy(kids, at, kids, at + 1, kidCount - at);
+            kids[at] = kid;
+            kidCount++;
+        }
+
+        void addName(String name) {
+            if (refs == names.length) names = Arrays.copyOf(names, Math.max(1, refs * 2));
+            names[refs++] = name;
+        }
+
+        // the exact name if it is here, else the latest case variant; true if one was removed
+        boolean removeName(String name) {
+            if (refs == 0) return false;
+            int at = refs - 1;
+            for (int j = 0; j < refs; j++) {
+                if (names[j].equals(name)) {
+                    at = j;
+                    break;
+                }
+            }
+            System.arraycopy(names, at + 1, names, at, refs - at - 1);
+            names[--refs] = null;
+            return true;
+        }
+
+        void removeKid(int at) {
+            System.arraycopy(kids, at + 1, kids, at, kidCount - at - 1);
+            kids[--kidCount] = null;
+        }
+
+        // folds the only child into this node (this one holds no name)
+        void absorbOnlyKid() {
+            Node only = kids[0];
+            label = label + only.label;
+            kids = only.kids;
+            kidCount = only.kidCount;
+            names = only.names;
+            refs = only.refs;
+        }
+    }
+
+    private Node root = new Node("");
+    private int size;
+
+    /**
+     * Distinct names (ignoring case).
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        root = new Node("");
+        size = 0;
+    }
+
+    synchronized void add(String name) {
+        if (name == null || name.isEmpty()) return;
+        String key = name.toLowerCase(Locale.ROOT);
+
+        Node n = root;
+        int i = 0;
+        while (i < key.length()) {
+            int k = n.find(key.charAt(i));
+            if (k < 0) {
+                Node leaf = new Node(key.substring(i));
+                leaf.addName(name);
+                n.insertKid(-k - 1, leaf);
+                size++;
+                return;
+            }
+
+            Node c = n.kids[k];
+            int common = commonPrefix(c.label, key, i);
+            if (common < c.label.length()) {
+                // the key leaves this edge part-way: split it
+                Node mid = new Node(c.label.substring(0, common));
+                c.label = c.label.substring(common);
+                mid.insertKid(0, c);
+                n.kids[k] = mid;
+                c = mid;
+            }
+            n = c;
+            i += common;
+        }
+
+        if (n.refs == 0) size++;
+        n.addName(name);
+    }
+
+    synchronized void remove(String name) {
+        if (name == null || name.isEmpty()) return;
+        String key = name.toLowerCase(Locale.ROOT);
+
+        Node parent = null;
+        int at = -1;
+        Node n = root;
+        int i = 0;
+        while (i < key.length()) {
+            int k = n.find(key.charAt(i));
+            if (k < 0) return;
+            Node c = n.kids[k];
+            if (!key.startsWith(c.label, i)) return;
+            parent = n;
+            at = k;
+            n = c;
+            i += c.label.length();
+        }
+
+        if (!n.removeName(name) || n.refs > 0) return;
+        size--;
+        if (parent == null) return;
+
+        if (n.kidCount == 0) {
+            parent.removeKid(at);
+            if (parent != root && parent.refs == 0 && parent.kidCount == 1) parent.absorbOnlyKid();
+        } else if (n.kidCount == 1) {
+            n.absorbOnlyKid();
+        }
+    }
+
+    /**
+     * A player's banned name changed from {@code before} to {@code after} (either may be null).
+     */
+    synchronized void replace(String before, String after) {
+        if (before != null && before.equals(after)) return;
+        remove(before);
+        add(after);
+    }
+
+    /**
+     * Hands out up to {@code limit} names starting with {@code prefix} (any case), alphabetically.
+     * Returns how many.
+     */
+    synchronized int complete(String prefix, int limit, Consumer<String> out) {
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+
+        Node n = root;
+        int i = 0;
+        while (i < key.length()) {
+            int k = n.find(key.charAt(i));
+            if (k < 0) return 0;
+            Node c = n.kids[k];
+            int common = commonPrefix(c.label, key, i);
+            if (i + common < key.length() && common < c.label.length()) return 0;
+            n = c;
+            i += common;
+        }
+        return collect(n, limit, out, 0);
+    }
+
+    private static int collect(Node n, int limit, Consumer<String> out, int emitted) {
+        if (emitted >= limit) return emitted;
+        if (n.refs > 0) {
+            out.accept(n.names[0]);
+            emitted++;
+        }
+        for (int j = 0; j < n.kidCount && emitted < limit; j++) {
+            emitted = collect(n.kids[j], limit, out, emitted);
+        }
+        return emitted;
+    }
+
+    // chars of label that match key from position from on
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int j = 0;
+        while (j < max && label.charAt(j) == key.charAt(from + j)) j++;
+        return j;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Level-4 operator UUIDs from ops.json, published as one immutable set behind a volatile field.
+ *
+ * {@link #isOp(UUID)} is what Brigadier's requires() ends up calling for every command tree walk and
+ * tab completion, so it is a single volatile read plus a hash lookup: no lock, no allocation, no disk.
+ * Reloads are parsed on a background thread, triggered by a file watcher on ops.json and by the
+ * server's own operator list changes, and swapped in atomically; readers never see a half-built set.
+ */
+final class OpsSnapshot {
+
+    private static final Type OPS_LIST_TYPE = new TypeToken<List<OpsEntry>>() {}.getType();
+
+    private static final class OpsEntry {
+        String uuid;
+        String name;
+        int level;
+        boolean bypassesPlayerLimit;
+    }
+
+    private final Path opsJson;
+    private final Gson gson;
+
+    private volatile Set<UUID> ops = Set.of();
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "HardcoreBan-Ops");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean reloadQueued = new AtomicBoolean(false);
+
+    private volatile WatchService watcher;
+
+    OpsSnapshot(Path opsJson, Gson gson) {
+        this.opsJson = opsJson.toAbsolutePath();
+        this.gson = gson;
+    }
+
+    boolean isOp(UUID id) {
+        return ops.contains(id);
+    }
+
+    int size() {
+        return ops.size();
+    }
+
+    /**
+     * Queues a background reload; bursts of triggers collapse into one parse.
+     */
+    void requestReload() {
+        if (reloadQueued.compareAndSet(false, true)) {
+            loader.execute(() -> {
+                reloadQueued.set(false);
+                reloadNow();
+            });
+        }
+    }
+
+    /**
+     * Parses ops.json on the calling thread and publishes the result. A failed parse publishes an empty
+     * snapshot: nobody gets op-only access while the file can't be read.
+     */
+    void reloadNow() {
+        if (!Files.exists(opsJson)) {
+            ops = Set.of();
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try (BufferedReader br = Files.newBufferedReader(opsJson, StandardCharsets.UTF_8)) {
+            List<OpsEntry> list = gson.fromJson(br, OPS_LIST_TYPE);
+
+            Set<UUID> next = new HashSet<>();
+            if (list != null) {
+                for (OpsEntry e : list) {
+                    if (e == null || e.uuid == null) continue;
+                    if (e.level >= 4) next.add(UUID.fromString(e.uuid));
+                }
+            }
+
+            ops = Set.copyOf(next);
+            HbMetrics.OPS_RELOAD.recordSince(start);
+            HbLog.debug("Reloaded ops.json entries={} level4UUIDs={}", list == null ? 0 : list.size(), next.size());
+        } catch (Exception ex) {
+            ops = Set.of();
+            HbLog.error("Failed to reload " + opsJson + ", no ops until it can be read again", ex);
+        }
+    }
+
+    void startWatching() {
+        if (watcher != null) return;
+
+        Path dir = opsJson.getParent();
+        try {
+            WatchService ws = dir.getFileSystem().newWatchService();
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = ws;
+        } catch (IOException e) {
+            HbLog.error("Could not watch " + dir + " for ops.json changes", e);
+            return;
+        }
+
+        Thread t = new Thread(this::watchLoop, "HardcoreBan-OpsWatcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void stopWatching() {
+        WatchService ws = watcher;
+        watcher = null;
+        if (ws == null) return;
+        try {
+            ws.close();
+        } catch (IOException ignored) {}
+    }
+
+    private void watchLoop() {
+        Path fileName = opsJson.getFileName();
+        WatchService ws;
+        while ((ws = watcher) != null) {
+            WatchKey key;
+            try {
+                key = ws.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean touched = false;
+            for (WatchEvent<?> ev : key.pollEvents()) {
+                if (ev.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(ev.context())) touched = true;
+            }
+            if (touched) requestReload();
+
+            if (!key.reset()) return;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.hardcoreban;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single dedicated I/O thread for everything the mod writes to config/HardcoreBan/.
+ * Tasks run strictly in submission order, so a later write never lands before an earlier one.
+ */
+final class PersistenceThread {
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "HardcoreBan-IO");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private PersistenceThread() {}
+
+    static void execute(Runnable task) {
+        IO.execute(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                HbLog.error("I/O task failed", t);
+            }
+        });
+    }
+
+    /**
+     * Blocks until every task submitted before this call has finished.
+     * Only meant for shutdown / startup, never for the tick path.
+     */
+    static void awaitIdle(long timeoutMs) {
+        try {
+            IO.submit(() -> {}).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            HbLog.error("Timed out waiting for pending writes", e);
+        }
+    }
+
+    /**
+     * Writes via a sibling temp file and renames it over the target, so readers never see a half-written file.
+     */
+    static void writeAtomically(Path target, ContentWriter writer) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        writer.write(tmp);
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name -> UUID side index for the banned store.
+ *
+ * Seeded from the server's user cache (usercache.json, read directly like ops.json) and kept current
+ * from joins and deaths (any thread). Names are matched case-insensitively, like Minecraft does.
+ */
+final class PlayerNames {
+
+    private static final Type USERCACHE_TYPE = new TypeToken<List<UserCacheEntry>>() {}.getType();
+
+    private static final class UserCacheEntry {
+        String name;
+        String uuid;
+    }
+
+    private final Map<String, UUID> byName = new ConcurrentHashMap<>();
+
+    int loadUserCache(Path usercacheJson, Gson gson) {
+        if (!Files.exists(usercacheJson)) return 0;
+
+        try (BufferedReader br = Files.newBufferedReader(usercacheJson, StandardCharsets.UTF_8)) {
+            List<UserCacheEntry> list = gson.fromJson(br, USERCACHE_TYPE);
+            if (list == null) return 0;
+
+            int added = 0;
+            for (UserCacheEntry e : list) {
+                if (e == null || e.name == null || e.uuid == null) continue;
+                try {
+                    remember(UUID.fromString(e.uuid), e.name);
+                    added++;
+                } catch (IllegalArgumentException ignored) {}
+            }
+            return added;
+        } catch (Exception e) {
+            HbLog.error("Failed to read user cache: " + usercacheJson, e);
+            return 0;
+        }
+    }
+
+    void remember(UUID id, String name) {
+        if (id == null || name == null || name.isBlank()) return;
+        byName.put(name.toLowerCase(Locale.ROOT), id);
+    }
+
+    /**
+     * Known UUID for {@code name}, or null.
+     */
+    UUID find(String name) {
+        if (name == null) return null;
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Known UUID for {@code name}, falling back to the offline-mode UUID the server itself would derive.
+     */
+    UUID resolve(String name) {
+        UUID id = find(name);
+        return id != null ? id : offlineUuid(name);
+    }
+
+    static UUID offlineUuid(String name) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.hardcoreban;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A {@link BanStorage} that also publishes every local change to the {@link ReplicationFeed}.
+ * Changes that came in from other servers are written to the wrapped backend directly, so they are not echoed.
+ */
+final class ReplicatedBanStorage implements BanStorage {
+
+    private final BanStorage local;
+    private final ReplicationFeed feed;
+
+    ReplicatedBanStorage(BanStorage local, ReplicationFeed feed) {
+        this.local = local;
+        this.feed = feed;
+    }
+
+    @Override
+    public void open(BanStore bans, Set<String> pendingPops) throws IOException {
+        local.open(bans, pendingPops);
+    }
+
+    @Override
+    public void append(List<StoreJournal.Record> txn) {
+        local.append(txn);
+        feed.publish(txn);
+    }
+
+    @Override
+    public void applyAndAppend(Runnable change, StoreJournal.Record... txn) {
+        local.applyAndAppend(change, txn);
+        feed.publish(List.of(txn));
+    }
+
+    @Override
+    public void recordDeath(Death death) {
+        local.recordDeath(death); // history stays with the server the player died on
+    }
+
+    @Override
+    public List<Death> history(UUID id, int limit) throws IOException {
+        return local.history(id, limit);
+    }
+
+    @Override
+    public void maintain() {
+        local.maintain();
+    }
+
+    @Override
+    public int backlog() {
+        return local.backlog();
+    }
+
+    @Override
+    public void flush() {
+        local.flush();
+    }
+
+    @Override
+    public void close() {
+        local.close();
+    }
+
+    @Override
+    public String describe() {
+        return local.describe() + ", replicated as " + feed.nodeId() + " via " + feed.dir();
+    }
+}
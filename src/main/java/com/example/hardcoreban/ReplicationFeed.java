@@ -0,0 +1,461 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-server replication through a shared directory (config.replicationDir).
+ *
+ * Every server appends its own changes to {@code <dir>/<nodeId>.NNNNN.log}, one transaction per line:
+ * {@code {"node": "...", "ts": epochMs, "txn": [journal records]}}. A log rolls over to the next number at
+ * {@link #SEGMENT_BYTES} and only the newest {@link #KEEP_SEGMENTS} are kept, so a server that is away
+ * for longer than that much change history misses the oldest of it. A background thread tails the other
+ * servers' logs (WatchService, plus a rescan every couple of seconds because network filesystems often
+ * deliver no events) and queues complete lines; the server thread applies them in its tick task. Since
+ * every change carries its timestamp, the order the logs are read in does not matter.
+ *
+ * Conflicts are last-writer-wins per player (and per pending-pop name). Timestamps come from a clock that
+ * never runs backwards on a server and moves past every timestamp it has seen; ties go to the higher node id.
+ * A change older than the last one applied for its key is dropped. Read offsets and the clock are kept in
+ * replication-state.json, so a restart neither re-applies nor misses changes.
+ */
+final class ReplicationFeed {
+
+    record Change(String file, long endOffset, String node, long ts, List<StoreJournal.Record> txn) {}
+
+    private record Stamp(long ts, String node) {
+        boolean newerThan(Stamp other) {
+            return other == null || ts > other.ts || (ts == other.ts && node.compareTo(other.node) > 0);
+        }
+    }
+
+    private static final long RESCAN_MS = 2_000L;
+    private static final long CLOCK_RETENTION_MS = 30L * 24L * 60L * 60L * 1000L;
+    private static final int READ_CHUNK = 1 << 20;
+    private static final int MAX_LINE = 16 << 20;               // longer lines are skipped (not a transaction we wrote)
+    static final long SEGMENT_BYTES = 8L * 1024L * 1024L;
+    static final int KEEP_SEGMENTS = 8;
+    private static final String SUFFIX = ".log";
+    private static final Gson LINE_GSON = new Gson();
+
+    private final Path dir;
+    private final String nodeId;
+    private final String ownPrefix;
+    private final Path statePath;
+    private final WriteBehindFile<JsonObject> stateFile;
+
+    private final AtomicLong lastTs = new AtomicLong();
+    private final Map<String, Stamp> clock = new ConcurrentHashMap<>();
+    private final Map<String, Long> appliedOffsets = new ConcurrentHashMap<>();   // persisted, advanced on apply
+
+    private final Queue<Change> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // tail thread only
+    private final Map<String, Long> readOffsets = new HashMap<>();
+
+    // I/O thread only: the segment this server appends to (-1 until the first append looks it up)
+    private int segment = -1;
+    private long segmentSize;
+
+    private volatile boolean running = false;
+    private volatile WatchService watcher;
+    private Thread tailThread;
+
+    ReplicationFeed(Path dir, String nodeId, Path statePath) {
+        this.dir = dir.toAbsolutePath();
+        this.nodeId = nodeId;
+        this.ownPrefix = nodeId + ".";
+        this.statePath = statePath;
+        this.stateFile = new WriteBehindFile<>(statePath, this::stateSnapshot,
+                (snapshot, file) -> Files.writeString(file, LINE_GSON.toJson(snapshot), StandardCharsets.UTF_8));
+        loadState();
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    /**
+     * Changes read from other servers and not applied yet.
+     */
+    int pending() {
+        return pending.get();
+    }
+
+    // =========================================================
+    // Outgoing (any thread)
+    // =========================================================
+
+    /**
+     * Stamps one local transaction and queues it for this server's log.
+     */
+    void publish(List<StoreJournal.Record> txn) {
+        if (txn.isEmpty()) return;
+
+        long ts = lastTs.updateAndGet(t -> Math.max(t + 1, System.currentTimeMillis()));
+        Stamp stamp = new Stamp(ts, nodeId);
+        for (StoreJournal.Record r : txn) {
+            String key = key(r);
+            if (key != null) clock.put(key, stamp);
+        }
+        stateFile.markDirty();
+
+        JsonObject line = new JsonObject();
+        line.addProperty("node", nodeId);
+        line.addProperty("ts", ts);
+        line.add("txn", StoreJournal.encode(txn));
+        byte[] bytes = (LINE_GSON.toJson(line) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        PersistenceThread.execute(() -> {
+            try {
+                appendOwn(bytes);
+            } catch (IOException e) {
+                HbLog.error("Failed to append to replication log: " + segmentPath(segment), e);
+            }
+        });
+    }
+
+    // I/O thread
+    private void appendOwn(byte[] line) throws IOException {
+        if (segment < 0) {
+            Files.createDirectories(dir);
+            segment = 0;
+            for (int seg : ownSegments()) segment = Math.max(segment, seg);
+            Path current = segmentPath(segment);
+            segmentSize = Files.exists(current) ? Files.size(current) : 0L;
+        }
+        if (segmentSize >= SEGMENT_BYTES) roll();
+
+        Files.write(segmentPath(segment), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        segmentSize += line.length;
+    }
+
+    private void roll() throws IOException {
+        segment++;
+        segmentSize = 0L;
+        for (int seg : ownSegments()) {
+            if (seg <= segment - KEEP_SEGMENTS) Files.deleteIfExists(segmentPath(seg));
+        }
+        HbLog.debug("Replication log rolled to segment {}", segment);
+    }
+
+    private List<Integer> ownSegments() throws IOException {
+        List<Integer> out = new ArrayList<>();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(dir, ownPrefix + "*" + SUFFIX)) {
+            for (Path log : logs) {
+                String n = log.getFileName().toString();
+                try {
+                    out.add(Integer.parseInt(n.substring(ownPrefix.length(), n.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        return out;
+    }
+
+    private Path segmentPath(int seg) {
+        return dir.resolve(String.format("%s%05d%s", ownPrefix, seg, SUFFIX));
+    }
+
+    // =========================================================
+    // Incoming (server thread)
+    // =========================================================
+
+    Change poll() {
+        Change c = incoming.poll();
+        if (c != null) pending.decrementAndGet();
+        return c;
+    }
+
+    /**
+     * Whether {@code r} from {@code c} is newer than what this server last applied or wrote for the same key.
+     */
+    boolean accept(Change c, StoreJournal.Record r) {
+        lastTs.accumulateAndGet(c.ts(), Math::max);
+
+        String key = key(r);
+        if (key == null) return true;
+
+        Stamp stamp = new Stamp(c.ts(), c.node());
+        boolean[] won = {false};
+        clock.compute(key, (k, current) -> {
+            if (!stamp.newerThan(current)) return current;
+            won[0] = true;
+            return stamp;
+        });
+        return won[0];
+    }
+
+    void markApplied(Change c) {
+        appliedOffsets.put(c.file(), c.endOffset());
+        stateFile.markDirty();
+    }
+
+    /**
+     * Server thread, once per tick: queues the state write if anything changed.
+     */
+    void maintain() {
+        stateFile.handOff();
+    }
+
+    // =========================================================
+    // Tailing (background thread)
+    // =========================================================
+
+    void start() {
+        if (running) return;
+
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            HbLog.error("Cannot create replication dir: " + dir, e);
+            return;
+        }
+
+        try {
+            WatchService ws = dir.getFileSystem().newWatchService();
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = ws;
+        } catch (IOException e) {
+            HbLog.warn("Could not watch " + dir + ", polling it every " + RESCAN_MS + " ms instead");
+        }
+
+        // resume from what was applied, anything read but not applied before a stop is read again
+        incoming.clear();
+        pending.set(0);
+        readOffsets.clear();
+        readOffsets.putAll(appliedOffsets);
+
+        running = true;
+        tailThread = new Thread(this::tailLoop, "HardcoreBan-Replication");
+        tailThread.setDaemon(true);
+        tailThread.start();
+        HbLog.info("Replication on: node=" + nodeId + " dir=" + dir);
+    }
+
+    void stop() {
+        if (!running) return;
+        running = false;
+
+        WatchService ws = watcher;
+        watcher = null;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ignored) {}
+        }
+        tailThread.interrupt();
+        try {
+            tailThread.join(5_000L);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+
+        stateFile.markDirty();
+        stateFile.flush();
+    }
+
+    private void tailLoop() {
+        while (running) {
+            scanAll();
+
+            try {
+                WatchService ws = watcher;
+                if (ws == null) {
+                    Thread.sleep(RESCAN_MS);
+                    continue;
+                }
+                WatchKey key = ws.poll(RESCAN_MS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents(); // which file does not matter, scanAll only reads what grew
+                    if (!key.reset()) watcher = null;
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private void scanAll() {
+        Set<String> present = new HashSet<>();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path log : logs) {
+                String file = log.getFileName().toString();
+                present.add(file);
+                if (!file.startsWith(ownPrefix)) readNew(log);
+            }
+        } catch (IOException e) {
+            HbLog.error("Failed to scan replication dir: " + dir, e);
+            return;
+        }
+        // logs other servers rotated away have nothing left to read
+        readOffsets.keySet().retainAll(present);
+        if (appliedOffsets.keySet().retainAll(present)) stateFile.markDirty();
+    }
+
+    // queues every complete line past the last read offset; a partial last line waits for the next scan
+    private void readNew(Path log) {
+        String file = log.getFileName().toString();
+        long pos = readOffsets.getOrDefault(file, 0L);
+
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < pos) {
+                HbLog.warn("Replication log shrank, reading it again from the start: " + log);
+                pos = 0L;
+            }
+
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.min(READ_CHUNK, Math.max(0L, size - pos)));
+            while (pos < size) {
+                buf.clear();
+                int n = ch.read(buf, pos);
+                if (n <= 0) break;
+
+                byte[] bytes = buf.array();
+                int lineStart = 0;
+                for (int i = 0; i < n; i++) {
+                    if (bytes[i] != '\n') continue;
+                    long end = pos + i + 1;
+                    String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                    lineStart = i + 1;
+                    queueLine(file, end, line);
+                }
+                if (lineStart > 0) {
+                    pos += lineStart;
+                    continue;
+                }
+
+                // no newline in the whole buffer
+                if (pos + n >= size) break; // the last line is still being written
+                if (buf.capacity() < MAX_LINE) {
+                    buf = ByteBuffer.allocate((int) Math.min(MAX_LINE, Math.min(2L * buf.capacity(), size - pos)));
+                    continue;
+                }
+                long next = nextLine(ch, pos + n, size);
+                if (next < 0L) break;
+                HbLog.warn("Skipping replication line over " + MAX_LINE + " bytes in " + file + " ending at " + next);
+                pos = next;
+            }
+        } catch (IOException e) {
+            HbLog.error("Failed to read replication log: " + log, e);
+        }
+        readOffsets.put(file, pos);
+    }
+
+    // offset just past the next newline at or after from, -1 if there is none before size
+    private static long nextLine(FileChannel ch, long from, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        for (long at = from; at < size; ) {
+            buf.clear();
+            int n = ch.read(buf, at);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return at + i + 1;
+            }
+            at += n;
+        }
+        return -1L;
+    }
+
+    private void queueLine(String file, long endOffset, String line) {
+        if (line.isBlank()) return;
+        try {
+            JsonObject o = LINE_GSON.fromJson(line, JsonObject.class);
+            String node = o.get("node").getAsString();
+            if (nodeId.equals(node)) return; // another server with our node id, or a copied log
+            Change c = new Change(file, endOffset, node, o.get("ts").getAsLong(),
+                    StoreJournal.decode(o.getAsJsonArray("txn")));
+            incoming.add(c);
+            pending.incrementAndGet();
+        } catch (Exception e) {
+            HbLog.warn("Skipping unreadable replication line in " + file + " ending at " + endOffset);
+        }
+    }
+
+    private static String key(StoreJournal.Record r) {
+        return switch (r.op()) {
+            case BAN, UNBAN -> r.id() == null ? null : r.id().toString();
+            case POP_ADD, POP_REMOVE -> "pop:" + r.name();
+        };
+    }
+
+    // =========================================================
+    // State (replication-state.json)
+    // =========================================================
+
+    // {"lastTs": ..., "offsets": {"<file>": bytes}, "clock": {"<key>": [ts, "node"]}}; old clock entries are dropped
+    private JsonObject stateSnapshot() {
+        long cutoff = System.currentTimeMillis() - CLOCK_RETENTION_MS;
+        clock.values().removeIf(s -> s.ts() < cutoff);
+
+        JsonObject root = new JsonObject();
+        root.addProperty("lastTs", lastTs.get());
+        JsonObject offsets = new JsonObject();
+        appliedOffsets.forEach(offsets::addProperty);
+        root.add("offsets", offsets);
+        JsonObject stamps = new JsonObject();
+        clock.forEach((k, s) -> {
+            JsonArray a = new JsonArray(2);
+            a.add(s.ts());
+            a.add(s.node());
+            stamps.add(k, a);
+        });
+        root.add("clock", stamps);
+        return root;
+    }
+
+    private void loadState() {
+        if (!Files.exists(statePath)) return;
+
+        try (BufferedReader br = Files.newBufferedReader(statePath, StandardCharsets.UTF_8)) {
+            JsonObject root = LINE_GSON.fromJson(br, JsonObject.class);
+            if (root == null) return;
+            if (root.has("lastTs")) lastTs.set(root.get("lastTs").getAsLong());
+            if (root.has("offsets")) {
+                for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("offsets").entrySet()) {
+                    appliedOffsets.put(e.getKey(), e.getValue().getAsLong());
+                }
+            }
+            if (root.has("clock")) {
+                for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("clock").entrySet()) {
+                    JsonArray a = e.getValue().getAsJsonArray();
+                    clock.put(e.getKey(), new Stamp(a.get(0).getAsLong(), a.get(1).getAsString()));
+                }
+            }
+        } catch (Exception e) {
+            HbLog.error("Failed to load replication state: " + statePath, e);
+        }
+    }
+}
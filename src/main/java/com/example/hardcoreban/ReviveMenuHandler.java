@@ -0,0 +1,230 @@
+package com.example.hardcoreban;
+
+import com.example.hardcoreban.BanListView.Filter;
+import com.example.hardcoreban.BanListView.Row;
+import com.example.hardcoreban.BanListView.Sort;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.SimpleInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.screen.GenericContainerScreenHandler;
+import net.minecraft.screen.ScreenHandlerType;
+import net.minecraft.screen.SimpleNamedScreenHandlerFactory;
+import net.minecraft.screen.slot.SlotActionType;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+/**
+ * Paginated revive menu: 5 rows of heads, bottom row for prev / sort / filter / next.
+ *
+ * Only the visible page is ever turned into ItemStacks. The sorted rows behind the pages come from a shared
+ * {@link BanListView}, so opening the menu costs one page of heads whether 10 or 50,000 players are banned.
+ */
+class ReviveMenuHandler extends GenericContainerScreenHandler {
+
+    static final int ROWS = 6;
+    static final int SIZE = ROWS * 9;
+    static final int PAGE_SIZE = 45;
+
+    private static final int SLOT_PREV = 45;
+    private static final int SLOT_SORT = 48;
+    private static final int SLOT_INFO = 49;
+    private static final int SLOT_FILTER = 50;
+    private static final int SLOT_NEXT = 53;
+
+    // =========================================================
+    // Shared sorted views (server thread only)
+    // =========================================================
+
+    private static final BanListView VIEWS = new BanListView();
+
+    private static List<Row> rows(BanStore store, Sort sort, Filter filter) {
+        // the snapshot is shared and immutable: iterated in place, never copied for the menu
+        return VIEWS.rows(store.snapshot(), sort, filter, System.currentTimeMillis());
+    }
+
+    /**
+     * Warms the head cache for the page most menus open on.
+     */
+    static void prefetchFirstPage(BanStore store) {
+        List<Row> rows = rows(store, Sort.SOONEST, Filter.ALL);
+        for (int i = 0; i < Math.min(PAGE_SIZE, rows.size()); i++) {
+            HardcoreBanMod.HEADS.prefetch(rows.get(i).id(), rows.get(i).name());
+        }
+    }
+
+    /**
+     * Server thread: re-renders open menus that are still showing placeholder heads.
+     */
+    static void refreshPendingHeads() {
+        for (ReviveMenuHandler menu : List.copyOf(OPEN)) {
+            if (menu.pendingHeads) {
+                menu.render();
+                menu.sendContentUpdates();
+            }
+        }
+    }
+
+    /**
+     * Server thread, once a second, one pass for every open menu. Each visible head remembers when its
+     * countdown text next changes (the next minute, or hour once over a day), so most seconds this only
+     * compares longs; slots that did roll over get a new title and only those slots are sent.
+     */
+    static void tickCountdowns(long now) {
+        for (ReviveMenuHandler menu : List.copyOf(OPEN)) {
+            boolean changed = false;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (menu.slotToId[i] == null || menu.slotNextChange[i] > now) continue;
+
+                ItemStack head = menu.inv.getStack(i).copy();
+                head.set(DataComponentTypes.CUSTOM_NAME, HardcoreBanMod.headTitle(menu.slotName[i], menu.slotUntil[i]));
+                menu.inv.setStack(i, head);
+                menu.slotNextChange[i] = nextDisplayChange(menu.slotUntil[i], now);
+                changed = true;
+            }
+            if (changed) menu.sendContentUpdates();
+        }
+    }
+
+    // formatRemaining truncates to minutes (hours past a day), so the text only changes on those boundaries
+    private static long nextDisplayChange(long untilMs, long now) {
+        long left = untilMs - now;
+        if (left <= 0L) return Long.MAX_VALUE;
+        long unit = left >= 86_400_000L ? 3_600_000L : 60_000L;
+        return now + (left % unit) + 1L;
+    }
+
+    static void open(ServerPlayerEntity opener, BanStore store) {
+        opener.openHandledScreen(new SimpleNamedScreenHandlerFactory(
+                (syncId, playerInv, player) -> new ReviveMenuHandler(syncId, playerInv, new SimpleInventory(SIZE), store),
+                Text.literal("Revive Menu")
+        ));
+    }
+
+    // =========================================================
+    // Per-viewer state
+    // =========================================================
+
+    private static final Set<ReviveMenuHandler> OPEN = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private final SimpleInventory inv;
+    private final BanStore store;
+    private final UUID[] slotToId = new UUID[PAGE_SIZE];
+    private final String[] slotName = new String[PAGE_SIZE];
+    private final long[] slotUntil = new long[PAGE_SIZE];
+    private final long[] slotNextChange = new long[PAGE_SIZE];
+
+    private Sort sort = Sort.SOONEST;
+    private Filter filter = Filter.ALL;
+    private int page = 0;
+    private boolean pendingHeads = false;
+
+    ReviveMenuHandler(int syncId, PlayerInventory playerInv, SimpleInventory inv, BanStore store) {
+        super(ScreenHandlerType.GENERIC_9X6, syncId, playerInv, inv, ROWS);
+        this.inv = inv;
+        this.store = store;
+        OPEN.add(this);
+        render();
+    }
+
+    @Override
+    public void onClosed(PlayerEntity player) {
+        super.onClosed(player);
+        OPEN.remove(this);
+    }
+
+    private void render() {
+        List<Row> rows = rows(store, sort, filter);
+        int pages = Math.max(1, (rows.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        page = Math.min(page, pages - 1);
+
+        int base = page * PAGE_SIZE;
+        long now = System.currentTimeMillis();
+        pendingHeads = false;
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int idx = base + i;
+            if (idx < rows.size()) {
+                Row row = rows.get(idx);
+                ItemStack head = HardcoreBanMod.makeBannedPlayerHead(row.id(), row.name(), row.untilMs());
+                if (head == null) {
+                    // swapped for the real head by refreshPendingHeads() once it is built
+                    head = new ItemStack(Items.PLAYER_HEAD);
+                    head.set(DataComponentTypes.CUSTOM_NAME, HardcoreBanMod.headTitle(row.name(), row.untilMs()));
+                    pendingHeads = true;
+                }
+                inv.setStack(i, head);
+                slotToId[i] = row.id();
+                slotName[i] = row.name();
+                slotUntil[i] = row.untilMs();
+                slotNextChange[i] = nextDisplayChange(row.untilMs(), now);
+            } else {
+                inv.setStack(i, ItemStack.EMPTY);
+                slotToId[i] = null;
+                slotName[i] = null;
+            }
+        }
+
+        // flipping forward should find the next page already built
+        for (int idx = base + PAGE_SIZE; idx < Math.min(base + 2 * PAGE_SIZE, rows.size()); idx++) {
+            HardcoreBanMod.HEADS.prefetch(rows.get(idx).id(), rows.get(idx).name());
+        }
+
+        for (int i = PAGE_SIZE; i < SIZE; i++) inv.setStack(i, ItemStack.EMPTY);
+        if (page > 0) inv.setStack(SLOT_PREV, control(Items.ARROW, "§ePrevious page"));
+        if (page < pages - 1) inv.setStack(SLOT_NEXT, control(Items.ARROW, "§eNext page"));
+        inv.setStack(SLOT_SORT, control(Items.HOPPER, "§6Sort: §f" + sort.label));
+        inv.setStack(SLOT_FILTER, control(Items.CLOCK, "§6Filter: §f" + filter.label));
+        inv.setStack(SLOT_INFO, control(Items.NAME_TAG,
+                "§7Page §f" + (page + 1) + "/" + pages + " §7(" + rows.size() + " banned)"));
+    }
+
+    private static ItemStack control(Item item, String label) {
+        ItemStack stack = new ItemStack(item);
+        stack.set(DataComponentTypes.CUSTOM_NAME, Text.literal(label));
+        return stack;
+    }
+
+    @Override
+    public void onSlotClick(int slotIndex, int button, SlotActionType actionType, PlayerEntity player) {
+        if (slotIndex < 0 || slotIndex >= SIZE) {
+            super.onSlotClick(slotIndex, button, actionType, player);
+            return;
+        }
+        if (!(player instanceof ServerPlayerEntity sp)) return;
+
+        // menu slots are buttons: never let items move in or out of them
+        if (slotIndex < PAGE_SIZE) {
+            UUID target = slotToId[slotIndex];
+            if (target != null) {
+                HbLog.debug("GUI click by={} target={}", sp, target);
+                HardcoreBanMod.reviveSelected(sp, target);
+                sp.closeHandledScreen();
+            }
+            return;
+        }
+
+        switch (slotIndex) {
+            case SLOT_PREV -> page = Math.max(0, page - 1);
+            case SLOT_NEXT -> page++;
+            case SLOT_SORT -> { sort = sort.next(); page = 0; }
+            case SLOT_FILTER -> { filter = filter.next(); page = 0; }
+            default -> { return; }
+        }
+        render();
+        sendContentUpdates();
+    }
+
+    @Override
+    public ItemStack quickMove(PlayerEntity player, int slot) {
+        return ItemStack.EMPTY;
+    }
+}
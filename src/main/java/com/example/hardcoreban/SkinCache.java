@@ -0,0 +1,75 @@
+package com.example.hardcoreban;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.properties.Property;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skins of banned players for the revive-menu heads (see {@link HeadCache}).
+ *
+ * The user cache only maps names to UUIDs; a player's signed "textures" property is only known while they
+ * are online. It is taken from their own profile at the death that bans them, kept while they stay banned
+ * and checkpointed to skins.json, so heads are built with the skin filled in and neither the server nor
+ * the clients have to look it up. Thread-safe.
+ */
+final class SkinCache {
+
+    record Texture(String value, String signature) {}
+
+    private final Map<UUID, Texture> textures = new ConcurrentHashMap<>();
+
+    /**
+     * True if this changed what is kept for {@code id}.
+     */
+    boolean remember(UUID id, GameProfile profile) {
+        if (profile == null || profile.properties() == null) return false;
+        for (Property p : profile.properties().get("textures")) {
+            Texture t = new Texture(p.value(), p.signature());
+            return !t.equals(textures.put(id, t));
+        }
+        return false;
+    }
+
+    Texture get(UUID id) {
+        return textures.get(id);
+    }
+
+    boolean forget(UUID id) {
+        return textures.remove(id) != null;
+    }
+
+    // =========================================================
+    // Checkpoint (skins.json)
+    // =========================================================
+
+    /**
+     * {"uuid": {"value": "...", "signature": "..."}}
+     */
+    JsonObject toJson() {
+        JsonObject root = new JsonObject();
+        textures.forEach((id, t) -> {
+            JsonObject o = new JsonObject();
+            o.addProperty("value", t.value());
+            if (t.signature() != null) o.addProperty("signature", t.signature());
+            root.add(id.toString(), o);
+        });
+        return root;
+    }
+
+    void load(JsonObject root) {
+        textures.clear();
+        if (root == null) return;
+
+        for (Map.Entry<String, JsonElement> e : root.entrySet()) {
+            JsonObject o = e.getValue().getAsJsonObject();
+            if (!o.has("value")) continue;
+            String signature = o.has("signature") && !o.get("signature").isJsonNull() ? o.get("signature").getAsString() : null;
+            textures.put(UUID.fromString(e.getKey()), new Texture(o.get("value").getAsString(), signature));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal for the banned store and the pending totem pop set.
+ *
+ * Every line is one transaction: a JSON array of records that is replayed all-or-nothing.
+ * A torn last line (crash mid-append) fails to parse and is dropped together with everything
+ * it contained, so e.g. a revive can never be half-applied. Records are idempotent set/remove
+ * operations, which makes replaying them over a snapshot that already contains them harmless.
+ */
+final class StoreJournal {
+
+    enum Op { BAN, UNBAN, POP_ADD, POP_REMOVE }
+
+    // id is null for pending-pop records and for ban records written before the store was UUID-keyed
+    record Record(Op op, UUID id, String name, long until) {}
+
+    static Record ban(UUID id, String name, long until) { return new Record(Op.BAN, id, name, until); }
+    static Record unban(UUID id, String name) { return new Record(Op.UNBAN, id, name, 0L); }
+    static Record popAdd(String name) { return new Record(Op.POP_ADD, null, name, 0L); }
+    static Record popRemove(String name) { return new Record(Op.POP_REMOVE, null, name, 0L); }
+
+    private static final Gson LINE_GSON = new Gson();
+
+    private final Path path;
+    private final AtomicInteger recordsSinceCompaction = new AtomicInteger();
+
+    // only touched on the I/O thread
+    private BufferedWriter out;
+
+    StoreJournal(Path path) {
+        this.path = path;
+    }
+
+    int recordsSinceCompaction() {
+        return recordsSinceCompaction.get();
+    }
+
+    /**
+     * Queues one transaction. Serialising happens here (O(records)), the disk write on the I/O thread.
+     */
+    void append(Record... records) {
+        if (records.length == 0) return;
+        append(List.of(records));
+    }
+
+    void append(List<Record> records) {
+        if (records.isEmpty()) return;
+
+        String line = LINE_GSON.toJson(encode(records));
+
+        recordsSinceCompaction.addAndGet(records.size());
+        PersistenceThread.execute(() -> writeLine(line));
+    }
+
+    /**
+     * Queues a truncate. Callers must have queued the snapshot writes that cover every earlier record first;
+     * the I/O thread runs tasks in order, so the journal is only emptied once those snapshots are on disk.
+     * If {@code snapshotsWritten} reports a failed write the journal is kept and replayed on the next start.
+     */
+    void truncateAfterPendingWrites(BooleanSupplier snapshotsWritten) {
+        recordsSinceCompaction.set(0);
+        PersistenceThread.execute(() -> {
+            if (snapshotsWritten.getAsBoolean()) {
+                truncate();
+            } else {
+                HbLog.warn("Snapshot write failed, keeping journal: " + path);
+            }
+        });
+    }
+
+    /**
+     * Startup only: feeds every complete transaction to {@code sink}, in order. Returns the number of records applied.
+     */
+    int replay(Consumer<Record> sink) {
+        if (!Files.exists(path)) return 0;
+
+        int applied = 0;
+        int lineNo = 0;
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+
+                List<Record> txn;
+                try {
+                    txn = decode(LINE_GSON.fromJson(line, JsonArray.class));
+                } catch (Exception e) {
+                    HbLog.warn("Dropping unreadable journal line " + lineNo + " in " + path);
+                    continue;
+                }
+
+                for (Record r : txn) sink.accept(r);
+                applied += txn.size();
+            }
+        } catch (IOException e) {
+            HbLog.error("Failed to replay journal: " + path, e);
+        }
+
+        recordsSinceCompaction.addAndGet(applied);
+        return applied;
+    }
+
+    /**
+     * One transaction as JSON (also the payload of {@link ReplicationFeed} lines).
+     */
+    static JsonArray encode(List<Record> records) {
+        JsonArray txn = new JsonArray(records.size());
+        for (Record r : records) {
+            JsonObject o = new JsonObject();
+            o.addProperty("op", r.op().name());
+            if (r.id() != null) o.addProperty("id", r.id().toString());
+            o.addProperty("name", r.name());
+            if (r.op() == Op.BAN) o.addProperty("until", r.until());
+            txn.add(o);
+        }
+        return txn;
+    }
+
+    static List<Record> decode(JsonArray arr) {
+        Record[] out = new Record[arr.size()];
+        for (int i = 0; i < out.length; i++) {
+            JsonObject o = arr.get(i).getAsJsonObject();
+            Op op = Op.valueOf(o.get("op").getAsString());
+            String id = str(o, "id");
+            String name = str(o, "name"); // left out by encode when null (e.g. expiry unbans)
+            JsonElement until = o.get("until");
+            out[i] = new Record(op, id == null ? null : UUID.fromString(id),
+                    name, until == null || until.isJsonNull() ? 0L : until.getAsLong());
+        }
+        return List.of(out);
+    }
+
+    private static String str(JsonObject o, String key) {
+        return o.has(key) && !o.get(key).isJsonNull() ? o.get(key).getAsString() : null;
+    }
+
+    private void writeLine(String line) {
+        try {
+            if (out == null) {
+                out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            out.write(line);
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            HbLog.error("Failed to append to journal: " + path, e);
+            closeQuietly();
+        }
+    }
+
+    private void truncate() {
+        closeQuietly();
+        try {
+            Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING).close();
+        } catch (IOException e) {
+            HbLog.error("Failed to truncate journal: " + path, e);
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {}
+        out = null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.hardcoreban;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the mod's per-tick work on the server thread inside a fixed nanosecond budget.
+ *
+ * Each task does a slice of work and reports whether it has more; a task cut off by the deadline
+ * ends the tick and is the first one resumed on the next, so a long backlog (a 100-player wipe) is
+ * spread across ticks instead of stalling one, and no task is starved by the ones before it.
+ * A single slice cannot be preempted: ticks that still go over budget are counted, and summarised
+ * to the server log at most once a minute.
+ */
+final class TickScheduler {
+
+    interface Task {
+        /**
+         * Does work until done or {@code deadlineNanos} (System.nanoTime) passes. Returns true if work is left.
+         */
+        boolean run(long deadlineNanos);
+    }
+
+    private record Named(String name, Task task) {}
+
+    private static final long REPORT_EVERY_NANOS = 60_000_000_000L;
+
+    private final List<Named> tasks = new ArrayList<>();
+    private volatile long budgetNanos;
+    private int resumeAt = 0;
+
+    // overrun stats since the last report (server thread only)
+    private int overruns = 0;
+    private long worstNanos = 0L;
+    private String worstTask = null;
+    private long lastReportNanos = System.nanoTime();
+    private long totalOverruns = 0L;
+
+    TickScheduler(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    void setBudgetNanos(long budgetNanos) {
+        this.budgetNanos = Math.max(100_000L, budgetNanos);
+    }
+
+    long budgetNanos() {
+        return budgetNanos;
+    }
+
+    long totalOverruns() {
+        return totalOverruns;
+    }
+
+    /**
+     * Registration order is priority order when nothing was carried over.
+     */
+    void add(String name, Task task) {
+        tasks.add(new Named(name, task));
+    }
+
+    void runTick() {
+        int n = tasks.size();
+        if (n == 0) return;
+
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long sliceStart = start;
+        long worstSlice = 0L;
+        String worstSliceTask = null;
+
+        int first = resumeAt;
+        resumeAt = 0;
+        for (int i = 0; i < n; i++) {
+            int idx = (first + i) % n;
+            Named t = tasks.get(idx);
+
+            boolean more;
+            try {
+                more = t.task().run(deadline);
+            } catch (Exception e) {
+                HbLog.error("Tick task '" + t.name() + "' failed", e);
+                more = false;
+            }
+
+            long end = System.nanoTime();
+            if (end - sliceStart > worstSlice) {
+                worstSlice = end - sliceStart;
+                worstSliceTask = t.name();
+            }
+            sliceStart = end;
+
+            if (more || end >= deadline) {
+                // carry over: whoever was cut off (or would be next) goes first next tick
+                resumeAt = more ? idx : (idx + 1) % n;
+                if (more) HbLog.debug("Tick budget used up in task={}, resuming next tick", t.name());
+                break;
+            }
+        }
+
+        long spent = sliceStart - start;
+        if (spent > budgetNanos) recordOverrun(spent, worstSliceTask, worstSlice);
+        maybeReport(sliceStart);
+    }
+
+    private void recordOverrun(long spent, String task, long slice) {
+        overruns++;
+        totalOverruns++;
+        if (slice > worstNanos) {
+            worstNanos = slice;
+            worstTask = task;
+        }
+        HbLog.debug("Tick work overran budget: spent={}us budget={}us slowest={}",
+                spent / 1000L, budgetNanos / 1000L, task);
+    }
+
+    private void maybeReport(long now) {
+        if (now - lastReportNanos < REPORT_EVERY_NANOS) return;
+        lastReportNanos = now;
+        if (overruns == 0) return;
+
+        HbLog.warn("Tick work went over its " + (budgetNanos / 1000L) + "us budget "
+                + overruns + " time(s) in the last minute (worst slice " + (worstNanos / 1000L) + "us in '" + worstTask + "')");
+        overruns = 0;
+        worstNanos = 0L;
+        worstTask = null;
+    }
+}
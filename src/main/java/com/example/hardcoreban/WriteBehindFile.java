@@ -0,0 +1,119 @@
+package com.example.hardcoreban;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for one snapshot file.
+ *
+ * The server thread only flips a dirty flag. Once per tick {@link #handOff()} takes a single snapshot
+ * and passes it to the {@link PersistenceThread}; any number of changes inside a tick become one write,
+ * and if the I/O thread falls behind it only ever writes the newest snapshot. A failed write marks the
+ * file dirty again, so a fresh snapshot is retried after {@link #RETRY_MS} even if nothing else changes.
+ */
+final class WriteBehindFile<T> {
+
+    @FunctionalInterface
+    interface SnapshotWriter<T> {
+        void write(T snapshot, Path file) throws IOException;
+    }
+
+    private static final long RETRY_MS = 1_000L;
+
+    private final Path path;
+    private final Supplier<T> snapshotter;
+    private final SnapshotWriter<T> writer;
+
+    private volatile boolean dirty = false;
+    private volatile boolean lastWriteOk = true;
+    private volatile long retryAtMs = 0L;   // after a failed write, handOff waits until then
+    // what the file on disk holds, as far as the mod knows (null until the first write or adopt)
+    private volatile T onDisk;
+    private volatile FileReloader.Stamp onDiskStamp;
+    private final AtomicReference<T> pending = new AtomicReference<>();
+
+    WriteBehindFile(Path path, Supplier<T> snapshotter, SnapshotWriter<T> writer) {
+        this.path = path;
+        this.snapshotter = snapshotter;
+        this.writer = writer;
+    }
+
+    /**
+     * Whether the most recent write reached the disk. Read it from a task queued on the I/O thread.
+     */
+    boolean lastWriteOk() {
+        return lastWriteOk;
+    }
+
+    /**
+     * The last snapshot this wrote (or adopted), so an edit by someone else can be diffed against it.
+     */
+    T onDisk() {
+        return onDisk;
+    }
+
+    /**
+     * What the file looked like right after that; tells the mod's own writes apart from external edits.
+     */
+    FileReloader.Stamp onDiskStamp() {
+        return onDiskStamp;
+    }
+
+    /**
+     * The file on disk now holds {@code snapshot} without this having written it (loaded at startup, or
+     * read back after an external edit). I/O thread, or before the first write.
+     */
+    void adopt(T snapshot) {
+        onDisk = snapshot;
+        onDiskStamp = FileReloader.Stamp.of(path);
+    }
+
+    void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Server thread: if anything changed, snapshot it now and queue the write.
+     */
+    void handOff() {
+        handOff(false);
+    }
+
+    private void handOff(boolean now) {
+        if (!dirty || (!now && System.currentTimeMillis() < retryAtMs)) return;
+        dirty = false;
+
+        T snapshot = snapshotter.get();
+        if (pending.getAndSet(snapshot) == null) {
+            PersistenceThread.execute(this::drain);
+        }
+    }
+
+    /**
+     * Hands off any outstanding change and waits until it is on disk.
+     */
+    void flush() {
+        handOff(true);
+        PersistenceThread.awaitIdle(10_000L);
+    }
+
+    private void drain() {
+        T snapshot = pending.getAndSet(null);
+        if (snapshot == null) return;
+
+        try {
+            PersistenceThread.writeAtomically(path, tmp -> writer.write(snapshot, tmp));
+            adopt(snapshot);
+            lastWriteOk = true;
+        } catch (IOException e) {
+            // logged once per run of failures; the retries only show in debug
+            if (lastWriteOk) HbLog.error("Failed to write " + path + ", retrying", e);
+            else HbLog.debug("Retry of {} failed: {}", path, e.getMessage());
+            lastWriteOk = false;
+            retryAtMs = System.currentTimeMillis() + RETRY_MS;
+            dirty = true;
+        }
+    }
+}
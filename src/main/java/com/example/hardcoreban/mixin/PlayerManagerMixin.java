@@ -0,0 +1,36 @@
+package com.example.hardcoreban.mixin;
+
+import com.example.hardcoreban.HardcoreBanMod;
+import net.minecraft.server.PlayerConfigEntry;
+import net.minecraft.server.PlayerManager;
+import net.minecraft.text.Text;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.net.SocketAddress;
+
+@Mixin(PlayerManager.class)
+public abstract class PlayerManagerMixin {
+
+    // require = 0: the ops.json watcher still catches the change if a mapping update renames these
+    @Inject(method = "addToOperators", at = @At("TAIL"), require = 0)
+    private void hardcoreban$onOpAdded(CallbackInfo ci) {
+        HardcoreBanMod.onOperatorsChanged();
+    }
+
+    @Inject(method = "removeFromOperators", at = @At("TAIL"), require = 0)
+    private void hardcoreban$onOpRemoved(CallbackInfo ci) {
+        HardcoreBanMod.onOperatorsChanged();
+    }
+
+    // login phase: refused before the player entity is created or any chunk is loaded.
+    // require = 0: the JOIN handler still refuses banned players if a mapping update renames this
+    @Inject(method = "checkCanJoin", at = @At("HEAD"), cancellable = true, require = 0)
+    private void hardcoreban$rejectBanned(SocketAddress address, PlayerConfigEntry entry, CallbackInfoReturnable<Text> cir) {
+        Text reason = HardcoreBanMod.checkLoginBan(entry.id());
+        if (reason != null) cir.setReturnValue(reason);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.hardcoreban.mixin;
+
+import net.minecraft.server.ServerConfigEntry;
+import net.minecraft.server.ServerConfigList;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import java.util.Map;
+
+// vanilla's add/remove rewrite the whole json file each time; BanEnforcer edits the entries and saves once per tick
+@Mixin(ServerConfigList.class)
+public interface ServerConfigListAccessor {
+
+    @Accessor("map")
+    Map<String, ServerConfigEntry<?>> hardcoreban$entries();
+
+    // the map key for a list key (the uuid for banned-players.json)
+    @Invoker("toString")
+    String hardcoreban$keyOf(Object key);
+}
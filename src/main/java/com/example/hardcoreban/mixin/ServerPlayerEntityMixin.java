@@ -11,20 +11,9 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 @Mixin(ServerPlayerEntity.class)
 public abstract class ServerPlayerEntityMixin {
 
+    // runs inside the damage tick: only capture the death, the ban is worked out in the death pipeline
     @Inject(method = "onDeath", at = @At("TAIL"))
     private void hardcoreban$onDeath(DamageSource source, CallbackInfo ci) {
-        ServerPlayerEntity player = (ServerPlayerEntity) (Object) this;
-
-        String deathMessage = player.getDamageTracker()
-                .getDeathMessage()
-                .getString();
-
-        int x = player.getBlockPos().getX();
-        int y = player.getBlockPos().getY();
-        int z = player.getBlockPos().getZ();
-
-        String reason = HardcoreBanMod.formatReason(deathMessage, x, y, z);
-
-        HardcoreBanMod.queueTempBan(player.getName().getString(), player.getName().getString() + " has died");
+        HardcoreBanMod.queueDeath((ServerPlayerEntity) (Object) this);
     }
 }
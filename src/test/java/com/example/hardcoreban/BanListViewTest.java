@@ -0,0 +1,63 @@
+package com.example.hardcoreban;
+
+import com.example.hardcoreban.BanListView.Filter;
+import com.example.hardcoreban.BanListView.Row;
+import com.example.hardcoreban.BanListView.Sort;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BanListViewTest {
+
+    private static final long NOW = 1_000_000_000L;
+
+    @Test
+    void incrementalRowsMatchAFreshBuild() {
+        BanStore store = new BanStore();
+        BanListView view = new BanListView();
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) store.put(id(random.nextInt(300)), "p" + i, NOW + random.nextInt(10_000_000));
+
+        for (int round = 0; round < 50; round++) {
+            // a few changes between looks, as between menu refreshes
+            int changes = 1 + random.nextInt(round % 10 == 0 ? 400 : 5);
+            for (int c = 0; c < changes; c++) {
+                UUID id = id(random.nextInt(300));
+                if (random.nextInt(3) == 0) store.remove(id);
+                else store.put(id, random.nextBoolean() ? null : "n" + random.nextInt(50), NOW + random.nextInt(10_000_000));
+            }
+
+            BanStore.Snapshot snap = store.snapshot();
+            for (Sort sort : Sort.values()) {
+                for (Filter filter : Filter.values()) {
+                    assertEquals(BanListView.build(snap, sort, filter, NOW), view.rows(snap, sort, filter, NOW),
+                            sort + "/" + filter + " in round " + round);
+                }
+            }
+        }
+    }
+
+    @Test
+    void filtersFollowTheClock() {
+        BanStore store = new BanStore();
+        store.put(id(1), "Soon", NOW + 30 * 60_000L);
+        store.put(id(2), "Later", NOW + 5 * 3_600_000L);
+        BanListView view = new BanListView();
+
+        assertEquals(List.of("Soon"), names(view.rows(store.snapshot(), Sort.NAME, Filter.UNDER_HOUR, NOW)));
+        long inFiveHours = NOW + 4 * 3_600_000L + 60_000L;
+        assertEquals(List.of("Later", "Soon"), names(view.rows(store.snapshot(), Sort.NAME, Filter.UNDER_HOUR, inFiveHours)));
+    }
+
+    private static UUID id(int i) {
+        return new UUID(7L, i + 1L);
+    }
+
+    private static List<String> names(List<Row> rows) {
+        return rows.stream().map(Row::name).toList();
+    }
+}
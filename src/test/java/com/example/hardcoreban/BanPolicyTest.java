@@ -0,0 +1,84 @@
+package com.example.hardcoreban;
+
+import com.example.hardcoreban.BanPolicy.Tier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BanPolicyTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long DAY = 24L * HOUR;
+
+    @Test
+    void validDurations() {
+        assertTrue(BanPolicy.isValidDuration("36h"));
+        assertTrue(BanPolicy.isValidDuration("3d"));
+        assertFalse(BanPolicy.isValidDuration(null));
+        assertFalse(BanPolicy.isValidDuration(""));
+        assertFalse(BanPolicy.isValidDuration("soon"));
+    }
+
+    @Test
+    void zeroDurationIsInvalid() {
+        assertFalse(BanPolicy.isValidDuration("0s"));
+        assertFalse(BanPolicy.isValidDuration("0d"));
+    }
+
+    @Test
+    void plainPolicy() {
+        BanPolicy policy = BanPolicy.compile("36h", "30d", List.of());
+
+        assertFalse(policy.escalates());
+        assertEquals(0L, policy.windowMs());
+        assertEquals(36L * HOUR, policy.durationMs(1));
+        assertEquals(36L * HOUR, policy.durationMs(5));
+        assertTrue(policy.problems().isEmpty());
+    }
+
+    @Test
+    void invalidBaseFallsBackAndIsReported() {
+        BanPolicy policy = BanPolicy.compile("0s", "30d", List.of());
+
+        assertEquals("24h", policy.base());
+        assertEquals(DAY, policy.durationMs(1));
+        assertEquals(1, policy.problems().size());
+    }
+
+    @Test
+    void tiersEscalateInOrder() {
+        BanPolicy policy = BanPolicy.compile("36h", "30d", List.of(new Tier(3, "7d"), new Tier(2, "3d")));
+
+        assertTrue(policy.escalates());
+        assertEquals(30L * DAY, policy.windowMs());
+        assertEquals(36L * HOUR, policy.durationMs(1));
+        assertEquals(3L * DAY, policy.durationMs(2));
+        assertEquals(7L * DAY, policy.durationMs(3));
+        assertEquals(7L * DAY, policy.durationMs(10));
+        assertEquals("7d", policy.durationText(10));
+        assertEquals("36h, 2nd death in 30d: 3d, 3rd: 7d", policy.describe());
+    }
+
+    @Test
+    void badTiersAreSkipped() {
+        BanPolicy policy = BanPolicy.compile("36h", "30d",
+                List.of(new Tier(1, "3d"), new Tier(2, "0s"), new Tier(3, "7d")));
+
+        assertEquals(List.of(new Tier(3, "7d")), policy.tiers());
+        assertEquals(36L * HOUR, policy.durationMs(2));
+        assertEquals(2, policy.problems().size());
+    }
+
+    @Test
+    void badWindowDisablesEscalation() {
+        BanPolicy policy = BanPolicy.compile("36h", "never", List.of(new Tier(2, "3d")));
+
+        assertFalse(policy.escalates());
+        assertEquals(36L * HOUR, policy.durationMs(2));
+        assertEquals(1, policy.problems().size());
+    }
+}
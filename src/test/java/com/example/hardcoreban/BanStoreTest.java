@@ -0,0 +1,93 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BanStoreTest {
+
+    @Test
+    void entriesSpreadOverStripesAreAllFound() {
+        BanStore store = new BanStore();
+        Map<UUID, Long> expected = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = new UUID(i * 0x9e3779b97f4a7c15L, i + 1);
+            store.put(id, "p" + i, i + 1L);
+            expected.put(id, i + 1L);
+        }
+        UUID removed = new UUID(0L, 1L);
+        assertTrue(store.remove(removed));
+        assertFalse(store.remove(removed));
+        expected.remove(removed);
+
+        assertEquals(expected.size(), store.size());
+        for (Map.Entry<UUID, Long> e : expected.entrySet()) assertEquals(e.getValue(), store.get(e.getKey(), -1L));
+        assertEquals(-1L, store.get(removed, -1L));
+
+        Map<UUID, Long> visited = new HashMap<>();
+        store.snapshot().forEach((hi, lo, name, until) -> visited.put(new UUID(hi, lo), until));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void snapshotIsCachedAndDoesNotChange() {
+        BanStore store = new BanStore();
+        UUID steve = new UUID(1L, 1L);
+        store.put(steve, "Steve", 100L);
+
+        BanStore.Snapshot snap = store.snapshot();
+        assertSame(snap, store.snapshot());
+
+        store.remove(steve);
+        store.put(new UUID(2L, 2L), "Alex", 200L);
+
+        assertEquals(1, snap.size());
+        assertEquals(100L, snap.get(steve, -1L));
+        assertEquals(steve, snap.findByName("steve"));
+        assertNull(snap.findByName("Alex"));
+
+        BanStore.Snapshot next = store.snapshot();
+        assertTrue(next.version() > snap.version());
+        assertFalse(next.contains(steve));
+    }
+
+    @Test
+    void changedSinceListsTheWrittenIds() {
+        BanStore store = new BanStore();
+        UUID steve = new UUID(1L, 1L);
+        UUID alex = new UUID(2L, 2L);
+        store.put(steve, "Steve", 100L);
+        BanStore.Snapshot before = store.snapshot();
+
+        store.put(alex, "Alex", 200L);
+        store.remove(steve);
+
+        List<UUID> changed = store.snapshot().changedSince(before.version());
+        assertEquals(Set.of(steve, alex), new HashSet<>(changed));
+        assertEquals(List.of(), store.snapshot().changedSince(store.snapshot().version()));
+    }
+
+    @Test
+    void changedSinceIsUnknownAfterClearOrTooManyWrites() {
+        BanStore store = new BanStore();
+        store.put(new UUID(1L, 1L), "Steve", 100L);
+        long before = store.snapshot().version();
+        store.clear();
+        assertNull(store.snapshot().changedSince(before));
+
+        before = store.snapshot().version();
+        for (int i = 0; i < 2_000; i++) store.put(new UUID(3L, i), "p" + i, 1L);
+        assertNull(store.snapshot().changedSince(before));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BanTableTest {
+
+    @Test
+    void putGetRemove() {
+        BanTable table = new BanTable();
+        UUID id = UUID.randomUUID();
+
+        table.put(id, "Steve", 100L);
+        assertEquals(100L, table.get(id, -1L));
+        assertEquals("Steve", table.nameOf(id));
+
+        // a later put without a name keeps the old one
+        table.put(id, null, 200L);
+        assertEquals(200L, table.get(id, -1L));
+        assertEquals("Steve", table.nameOf(id));
+
+        assertTrue(table.remove(id));
+        assertFalse(table.remove(id));
+        assertEquals(-1L, table.get(id, -1L));
+        assertNull(table.nameOf(id));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void removeKeepsProbeRunsReachable() {
+        // enough entries to get long probe runs and resizes; every delete must leave the rest findable
+        BanTable table = new BanTable(4);
+        Map<UUID, Long> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            ids.add(id);
+            table.put(id, "p" + i, i);
+            expected.put(id, (long) i);
+        }
+
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertTrue(table.remove(ids.get(i)));
+            expected.remove(ids.get(i));
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (UUID id : ids) {
+            assertEquals(expected.getOrDefault(id, -1L), table.get(id, -1L));
+        }
+
+        Map<UUID, Long> visited = new HashMap<>();
+        table.forEach((hi, lo, name, until) -> visited.put(new UUID(hi, lo), until));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        BanTable table = new BanTable();
+        UUID id = UUID.randomUUID();
+        table.put(id, "Steve", 1L);
+
+        BanTable copy = table.copy();
+        table.remove(id);
+
+        assertEquals(1L, copy.get(id, -1L));
+        assertEquals(-1L, table.get(id, -1L));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BannedStoreBinaryTest {
+
+    private static final UUID STEVE = new UUID(1L, 1L);
+    private static final UUID ALEX = new UUID(2L, 2L);
+    private static final UUID NAMELESS = new UUID(3L, 3L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        Path file = dir.resolve("banned.bin");
+        BannedStoreBinary.write(sample(), file);
+
+        BanTable read = new BanTable();
+        PlayerNames names = new PlayerNames();
+        BannedStoreBinary.read(file, read::put, names, 1_000L);
+
+        assertEquals(3, read.size());
+        assertEquals(5_000L, read.get(STEVE, -1L));
+        assertEquals("Steve", read.nameOf(STEVE));
+        assertEquals(0L, read.get(ALEX, -1L));
+        assertEquals("Älex", read.nameOf(ALEX));
+        assertNull(read.nameOf(NAMELESS));
+        assertEquals(STEVE, names.find("steve"));
+        assertEquals(ALEX, names.find("älex"));
+    }
+
+    @Test
+    void expiredBansAreLeftOut() throws IOException {
+        Path file = dir.resolve("banned.bin");
+        BannedStoreBinary.write(sample(), file);
+
+        BanTable read = new BanTable();
+        BannedStoreBinary.read(file, read::put, new PlayerNames(), 5_000L);
+
+        assertEquals(-1L, read.get(STEVE, -1L));
+        assertEquals(0L, read.get(ALEX, -1L));
+    }
+
+    @Test
+    void corruptFileIsRejected() throws IOException {
+        Path file = dir.resolve("banned.bin");
+        BannedStoreBinary.write(sample(), file);
+
+        // flip one byte of the first record's expiry
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, BannedStoreBinary.HEADER + 20);
+            b.put(0, (byte) (b.get(0) ^ 1)).rewind();
+            ch.write(b, BannedStoreBinary.HEADER + 20);
+        }
+
+        BanTable read = new BanTable();
+        assertThrows(IOException.class, () -> BannedStoreBinary.read(file, read::put, new PlayerNames(), 0L));
+        assertEquals(0, read.size());
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path file = dir.resolve("banned.bin");
+        BannedStoreBinary.write(sample(), file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 1);
+        }
+
+        assertThrows(IOException.class, () -> BannedStoreBinary.read(file, (id, name, until) -> {}, new PlayerNames(), 0L));
+    }
+
+    private static BanTable sample() {
+        BanTable table = new BanTable();
+        table.put(STEVE, "Steve", 5_000L);
+        table.put(ALEX, "Älex", 0L);
+        table.put(NAMELESS, null, 9_000L);
+        return table;
+    }
+}
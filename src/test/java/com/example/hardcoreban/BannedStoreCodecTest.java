@@ -0,0 +1,59 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BannedStoreCodecTest {
+
+    private static final Gson GSON = new Gson();
+    private static final UUID STEVE = new UUID(1L, 1L);
+    private static final UUID ALEX = new UUID(2L, 2L);
+
+    @Test
+    void roundTrip() throws IOException {
+        BanTable table = new BanTable();
+        table.put(STEVE, "Steve", 5_000L);
+        table.put(ALEX, "Alex", 0L);
+        String json = GSON.toJson(BannedStoreCodec.toJson(table));
+
+        BanTable read = new BanTable();
+        PlayerNames names = new PlayerNames();
+        BannedStoreCodec.Loaded loaded = BannedStoreCodec.read(new StringReader(json), read::put, names, 1_000L);
+
+        assertEquals(new BannedStoreCodec.Loaded(2, 0, 0), loaded);
+        assertEquals(5_000L, read.get(STEVE, -1L));
+        assertEquals("Alex", read.nameOf(ALEX));
+        assertEquals(ALEX, names.find("ALEX"));
+    }
+
+    @Test
+    void expiredAndLegacyEntries() throws IOException {
+        String json = "{\"" + STEVE + "\": {\"name\": \"Steve\", \"until\": 10, \"extra\": true},"
+                + " \"Alex\": 9000, \"Bob\": 20}";
+
+        BanTable read = new BanTable();
+        PlayerNames names = new PlayerNames();
+        names.remember(ALEX, "Alex");
+        BannedStoreCodec.Loaded loaded = BannedStoreCodec.read(new StringReader(json), read::put, names, 100L);
+
+        assertEquals(new BannedStoreCodec.Loaded(1, 2, 2), loaded);
+        assertEquals(9_000L, read.get(ALEX, -1L));
+        assertEquals(-1L, read.get(STEVE, -1L));
+        assertEquals(-1L, read.get(PlayerNames.offlineUuid("Bob"), -1L));
+    }
+
+    @Test
+    void emptyFileIsAnEmptyStore() throws IOException {
+        BanTable read = new BanTable();
+        assertEquals(new BannedStoreCodec.Loaded(0, 0, 0),
+                BannedStoreCodec.read(new StringReader(""), read::put, new PlayerNames(), 0L));
+        assertEquals(new BannedStoreCodec.Loaded(0, 0, 0),
+                BannedStoreCodec.read(new StringReader("null"), read::put, new PlayerNames(), 0L));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeathLogTest {
+
+    private static final UUID STEVE = new UUID(1L, 1L);
+    private static final UUID ALEX = new UUID(2L, 2L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void historyIsNewestFirst() throws IOException {
+        DeathLog log = open();
+        write(log, death(STEVE, 1L), death(ALEX, 2L));
+        write(log, death(STEVE, 3L));
+
+        assertEquals(List.of(3L, 1L), times(log.history(STEVE, 10)));
+        assertEquals(List.of(3L), times(log.history(STEVE, 1)));
+        assertEquals(List.of(2L), times(open().history(ALEX, 10)));
+    }
+
+    @Test
+    void unindexedTailIsCutOff() throws IOException {
+        DeathLog log = open();
+        write(log, death(STEVE, 1L));
+        Path segment = onlySegment();
+        long size = Files.size(segment);
+
+        // crash after part of a member reached the segment but before its index record was kept
+        append(segment, new byte[] {31, -117, 8, 0, 1, 2, 3});
+        DeathLog reopened = open();
+
+        assertEquals(size, Files.size(segment));
+        assertEquals(List.of(1L), times(reopened.history(STEVE, 10)));
+
+        // the next member lands where the cut-off bytes were
+        write(reopened, death(STEVE, 2L));
+        assertEquals(List.of(2L, 1L), times(open().history(STEVE, 10)));
+    }
+
+    @Test
+    void indexRecordsWithoutTheirMemberAreDropped() throws IOException {
+        DeathLog log = open();
+        write(log, death(STEVE, 1L));
+        Path index = dir.resolve("index.bin");
+        long size = Files.size(index);
+
+        // crash after the index record was written but before its member, plus a torn record
+        ByteBuffer record = ByteBuffer.allocate(32 + 5);
+        record.putLong(STEVE.getMostSignificantBits()).putLong(STEVE.getLeastSignificantBits())
+                .putLong(Files.size(onlySegment())).putInt(0).putInt(100);
+        append(index, record.array());
+        DeathLog reopened = open();
+
+        assertEquals(size, Files.size(index));
+        assertEquals(List.of(1L), times(reopened.history(STEVE, 10)));
+    }
+
+    @Test
+    void badRecordsAnywhereInTheIndexAreDropped() throws IOException {
+        DeathLog log = open();
+        write(log, death(STEVE, 1L));
+
+        // a record pointing at a segment that is not there, with a good one after it
+        ByteBuffer record = ByteBuffer.allocate(32);
+        record.putLong(ALEX.getMostSignificantBits()).putLong(ALEX.getLeastSignificantBits())
+                .putLong(0L).putInt(7).putInt(100);
+        append(dir.resolve("index.bin"), record.array());
+        write(log, death(STEVE, 2L));
+
+        DeathLog reopened = open();
+        assertEquals(2 * 32L, Files.size(dir.resolve("index.bin")));
+        assertEquals(List.of(2L, 1L), times(reopened.history(STEVE, 10)));
+        assertEquals(List.of(), times(reopened.history(ALEX, 10)));
+    }
+
+    private DeathLog open() throws IOException {
+        DeathLog log = new DeathLog(dir);
+        log.open();
+        return log;
+    }
+
+    private static void write(DeathLog log, BanStorage.Death... deaths) {
+        for (BanStorage.Death d : deaths) log.append(d);
+        PersistenceThread.awaitIdle(10_000L);
+    }
+
+    private static BanStorage.Death death(UUID id, long atMs) {
+        return new BanStorage.Death(id, "p", "drowned", "minecraft:overworld", 0, 64, 0, atMs, 1_000L);
+    }
+
+    private static List<Long> times(List<BanStorage.Death> deaths) {
+        return deaths.stream().map(BanStorage.Death::atMs).toList();
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".ndjson.gz")).findFirst().orElseThrow();
+        }
+    }
+
+    private static void append(Path file, byte[] bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(bytes));
+        }
+    }
+}
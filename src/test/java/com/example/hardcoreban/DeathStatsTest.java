@@ -0,0 +1,93 @@
+package com.example.hardcoreban;
+
+import com.example.hardcoreban.DeathStats.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeathStatsTest {
+
+    @Test
+    void causeKeyDropsThePlayersName() {
+        assertEquals("fell from a high place", DeathStats.causeKey("Steve", null, "Steve fell from a high place"));
+        assertEquals("died", DeathStats.causeKey("Steve", null, null));
+        assertEquals("died", DeathStats.causeKey("Steve", null, "Steve"));
+    }
+
+    @Test
+    void causeKeyOnlyDropsTheLeadingName() {
+        assertEquals("was slain by Steve's Wolf", DeathStats.causeKey("Steve", null, "Steve was slain by Steve's Wolf"));
+    }
+
+    @Test
+    void causeKeyFoldsPlayerKillers() {
+        assertEquals("was slain by a player", DeathStats.causeKey("Al", "Alex", "Al was slain by Alex"));
+        assertEquals("was slain by a player", DeathStats.causeKey("Al", "Steve", "Al was slain by Steve using [Sword]"));
+        assertEquals("was shot by a player", DeathStats.causeKey("Al", "Steve", "Al was shot by Steve"));
+    }
+
+    @Test
+    void topDeathsKeepsTheHighestCounts() {
+        DeathStats stats = new DeathStats();
+        int players = DeathStats.TOP + 5;
+        for (int p = 0; p < players; p++) {
+            UUID id = new UUID(0L, p + 1);
+            for (int d = 0; d <= p; d++) stats.recordDeath(id, "p" + p, "p" + p + " drowned", null, 1_000L);
+        }
+
+        List<Entry> top = stats.topDeaths();
+        assertEquals(DeathStats.TOP, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            int p = players - 1 - i;
+            assertEquals(new Entry("p" + p, p + 1), top.get(i));
+        }
+        assertEquals(List.of(new Entry("drowned", (long) players * (players + 1) / 2)), stats.topCauses());
+    }
+
+    @Test
+    void laterDeathsMoveAPlayerUp() {
+        DeathStats stats = new DeathStats();
+        UUID a = new UUID(0L, 1L);
+        UUID b = new UUID(0L, 2L);
+        stats.recordDeath(a, "A", null, null, 0L);
+        stats.recordDeath(a, "A", null, null, 0L);
+        stats.recordDeath(b, "B", null, null, 0L);
+        stats.recordDeath(b, "B", null, null, 0L);
+        stats.recordDeath(b, "B", null, null, 0L);
+
+        assertEquals(List.of(new Entry("B", 3L), new Entry("A", 2L)), stats.topDeaths());
+    }
+
+    @Test
+    void revivesCutBannedTime() {
+        DeathStats stats = new DeathStats();
+        UUID target = new UUID(0L, 1L);
+        UUID reviver = new UUID(0L, 2L);
+        stats.recordDeath(target, "T", null, null, 10_000L);
+        stats.recordRevive(reviver, "R", target, "T", 4_000L);
+
+        assertEquals(6_000L, stats.view(target).bannedMs());
+        assertEquals(1, stats.view(target).revivesReceived());
+        assertEquals(List.of(new Entry("R", 1L)), stats.topRevivers());
+    }
+
+    @Test
+    void checkpointRoundTrip() {
+        DeathStats stats = new DeathStats();
+        UUID id = new UUID(0L, 1L);
+        stats.recordDeath(id, "Steve", "Steve burned to death", null, 5_000L);
+        stats.recordDeath(id, "Steve", "Steve burned to death", null, 5_000L);
+        stats.recordDeath(id, "Steve", "Steve drowned", null, 5_000L);
+
+        DeathStats loaded = new DeathStats();
+        loaded.load(stats.toJson());
+
+        assertEquals(stats.topDeaths(), loaded.topDeaths());
+        assertEquals(stats.topCauses(), loaded.topCauses());
+        assertEquals(stats.view(id), loaded.view(id));
+        assertEquals(3L, loaded.totalDeaths());
+    }
+}
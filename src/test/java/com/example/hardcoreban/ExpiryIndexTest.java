@@ -0,0 +1,75 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiryIndexTest {
+
+    @Test
+    void popsDueEntriesInOrder() {
+        ExpiryIndex<String> index = new ExpiryIndex<>();
+        Map<String, Long> live = new HashMap<>();
+        for (String key : List.of("c:30", "a:10", "d:40", "b:20")) {
+            String[] kv = key.split(":");
+            live.put(kv[0], Long.parseLong(kv[1]));
+            index.schedule(kv[0], Long.parseLong(kv[1]));
+        }
+        index.schedule("never", 0L);
+
+        assertEquals(10L, index.nextExpiry());
+        List<String> expired = new ArrayList<>();
+        index.pollExpired(30L, k -> live.getOrDefault(k, 0L), expired::add);
+
+        assertEquals(List.of("a", "b", "c"), expired);
+        assertEquals(40L, index.nextExpiry());
+    }
+
+    @Test
+    void staleEntriesAreDroppedSilently() {
+        ExpiryIndex<String> index = new ExpiryIndex<>();
+        Map<String, Long> live = new HashMap<>();
+        index.schedule("revived", 10L);
+        index.schedule("rebanned", 20L);
+        index.schedule("rebanned", 50L);
+        live.put("rebanned", 50L);
+
+        List<String> expired = new ArrayList<>();
+        index.pollExpired(30L, k -> live.getOrDefault(k, 0L), expired::add);
+        assertEquals(List.of(), expired);
+
+        index.pollExpired(50L, k -> live.getOrDefault(k, 0L), expired::add);
+        assertEquals(List.of("rebanned"), expired);
+        assertEquals(Long.MAX_VALUE, index.nextExpiry());
+    }
+
+    @Test
+    void pollStopsAtTheLimit() {
+        ExpiryIndex<Integer> index = new ExpiryIndex<>();
+        for (int i = 1; i <= 10; i++) index.schedule(i, i);
+
+        List<Integer> expired = new ArrayList<>();
+        assertTrue(index.pollExpired(100L, k -> k, expired::add, 4));
+        assertEquals(List.of(1, 2, 3, 4), expired);
+        assertFalse(index.pollExpired(100L, k -> k, expired::add, 100));
+        assertEquals(10, expired.size());
+    }
+
+    @Test
+    void rebuildOnceStaleEntriesDominate() {
+        ExpiryIndex<Integer> index = new ExpiryIndex<>();
+        for (int i = 0; i < 100; i++) index.schedule(i, 1_000L + i);
+        assertFalse(index.needsRebuild(100));
+        assertTrue(index.needsRebuild(10));
+
+        index.clear();
+        assertEquals(Long.MAX_VALUE, index.nextExpiry());
+    }
+}
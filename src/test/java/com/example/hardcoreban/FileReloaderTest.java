@@ -0,0 +1,64 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileReloaderTest {
+
+    @TempDir
+    Path dir;
+
+    private volatile FileReloader.Stamp ownWrite;
+
+    @Test
+    void ownWritesAreNotReloaded() throws Exception {
+        Path file = dir.resolve("ops.json");
+        BlockingQueue<Path> reloads = new LinkedBlockingQueue<>();
+        FileReloader reloader = new FileReloader(dir);
+        reloader.watch("ops.json", Runnable::run, () -> ownWrite, reloads::add);
+        reloader.start();
+        try {
+            writeOwn(file, "[]");
+            assertNull(reloads.poll(1_500L, TimeUnit.MILLISECONDS));
+
+            // someone else's edit
+            Files.writeString(file, "[\"Steve\"]");
+            assertEquals(file, reloads.poll(10L, TimeUnit.SECONDS));
+
+            // the same stamp is not handed over twice, and the next own write is skipped again
+            writeOwn(file, "[\"Steve\", \"Alex\"]");
+            assertNull(reloads.poll(1_500L, TimeUnit.MILLISECONDS));
+        } finally {
+            reloader.stop();
+        }
+    }
+
+    @Test
+    void otherFilesAreIgnored() throws Exception {
+        BlockingQueue<Path> reloads = new LinkedBlockingQueue<>();
+        FileReloader reloader = new FileReloader(dir);
+        reloader.watch("ops.json", Runnable::run, () -> null, reloads::add);
+        reloader.start();
+        try {
+            Files.writeString(dir.resolve("config.json"), "{}");
+            assertNull(reloads.poll(1_500L, TimeUnit.MILLISECONDS));
+        } finally {
+            reloader.stop();
+        }
+    }
+
+    private void writeOwn(Path file, String content) throws IOException {
+        Files.writeString(file, content);
+        ownWrite = FileReloader.Stamp.of(file);
+    }
+}
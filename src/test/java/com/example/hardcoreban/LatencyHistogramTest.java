@@ -0,0 +1,60 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 0; v < 16; v++) h.record(v);
+
+        assertEquals(16L, h.count());
+        assertEquals(120L, h.sum());
+        assertEquals(15L, h.max());
+        assertEquals(0L, h.quantile(0.0));
+        assertEquals(7L, h.quantile(0.5));
+        assertEquals(15L, h.quantile(1.0));
+    }
+
+    @Test
+    void quantilesStayWithinTheBucketError() {
+        LatencyHistogram h = new LatencyHistogram();
+        Random random = new Random(17);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1L + (random.nextLong() >>> (1 + random.nextInt(62)));
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long reported = h.quantile(q);
+            assertTrue(reported >= exact, q + ": " + reported + " < " + exact);
+            assertTrue(reported <= exact + exact / 16 + 1, q + ": " + reported + " too far above " + exact);
+        }
+    }
+
+    @Test
+    void extremesDoNotOverflow() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5L);
+        h.record(Long.MAX_VALUE);
+
+        assertEquals(0L, h.quantile(0.5));
+        assertEquals(Long.MAX_VALUE, h.quantile(1.0));
+        assertEquals(Long.MAX_VALUE, h.max());
+    }
+
+    @Test
+    void emptyReportsZero() {
+        assertEquals(0L, new LatencyHistogram().quantile(0.99));
+    }
+}
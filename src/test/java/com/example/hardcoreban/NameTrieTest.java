@@ -0,0 +1,102 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NameTrieTest {
+
+    @Test
+    void completesAlphabeticallyUpToTheLimit() {
+        NameTrie trie = new NameTrie();
+        for (String name : List.of("Steve", "alex", "Stella", "st", "Bob", "Steven")) trie.add(name);
+
+        assertEquals(List.of("st", "Stella", "Steve", "Steven"), complete(trie, "ST", 10));
+        assertEquals(List.of("st", "Stella"), complete(trie, "st", 2));
+        assertEquals(List.of("Steve", "Steven"), complete(trie, "steve", 10));
+        assertEquals(List.of(), complete(trie, "stx", 10));
+        assertEquals(6, complete(trie, "", 10).size());
+    }
+
+    @Test
+    void removeMergesEdgesBack() {
+        NameTrie trie = new NameTrie();
+        trie.add("Steve");
+        trie.add("Stella");
+        trie.add("Steven");
+
+        trie.remove("Stella");
+        trie.remove("Steve");
+        assertEquals(List.of("Steven"), complete(trie, "s", 10));
+        assertEquals(List.of("Steven"), complete(trie, "steve", 10));
+        assertEquals(1, trie.size());
+
+        trie.remove("Steven");
+        assertEquals(0, trie.size());
+        assertEquals(List.of(), complete(trie, "", 10));
+    }
+
+    @Test
+    void caseVariantsShareAnEntry() {
+        NameTrie trie = new NameTrie();
+        trie.add("Steve");
+        trie.add("STEVE");
+        assertEquals(1, trie.size());
+        assertEquals(List.of("Steve"), complete(trie, "s", 10));
+
+        // the name shown follows the variants still there
+        trie.remove("Steve");
+        assertEquals(List.of("STEVE"), complete(trie, "s", 10));
+        trie.remove("STEVE");
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void renameMovesTheEntry() {
+        NameTrie trie = new NameTrie();
+        trie.add("Steve");
+        trie.replace("Steve", "Alex");
+        assertEquals(List.of("Alex"), complete(trie, "", 10));
+    }
+
+    @Test
+    void matchesASortedSetUnderRandomChanges() {
+        NameTrie trie = new NameTrie();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 5_000; i++) {
+            String name = randomName(random);
+            if (expected.contains(name)) {
+                trie.remove(name);
+                expected.remove(name);
+            } else {
+                trie.add(name);
+                expected.add(name);
+            }
+        }
+
+        assertEquals(expected.size(), trie.size());
+        for (String prefix : List.of("", "a", "ab", "abc", "b", "cab")) {
+            List<String> want = expected.stream().filter(n -> n.startsWith(prefix)).limit(20).toList();
+            assertEquals(want, complete(trie, prefix, 20));
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 1 + random.nextInt(5);
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + random.nextInt(3)));
+        return sb.toString();
+    }
+
+    private static List<String> complete(NameTrie trie, String prefix, int limit) {
+        List<String> out = new ArrayList<>();
+        assertEquals(trie.complete(prefix, limit, out::add), out.size());
+        return out;
+    }
+}
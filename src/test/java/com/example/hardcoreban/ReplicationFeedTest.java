@@ -0,0 +1,140 @@
+package com.example.hardcoreban;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicationFeedTest {
+
+    private static final UUID STEVE = new UUID(1L, 1L);
+    private static final Gson GSON = new Gson();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lastWriterWinsPerPlayer() throws IOException {
+        ReplicationFeed a = feed("a");
+        a.publish(List.of(StoreJournal.ban(STEVE, "Steve", 100L)));
+
+        StoreJournal.Record unban = StoreJournal.unban(STEVE, "Steve");
+        assertFalse(a.accept(change("b", 1L, unban), unban));
+
+        long later = System.currentTimeMillis() + 60_000L;
+        assertTrue(a.accept(change("c", later, unban), unban));
+        // same timestamp: the higher node id wins
+        assertFalse(a.accept(change("b", later, unban), unban));
+        assertTrue(a.accept(change("d", later, unban), unban));
+        // other players are not affected
+        StoreJournal.Record other = StoreJournal.ban(new UUID(2L, 2L), "Alex", 0L);
+        assertTrue(a.accept(change("b", 1L, other), other));
+
+        // the clock moved past what it saw, so the next local change wins everywhere
+        a.publish(List.of(StoreJournal.ban(STEVE, "Steve", 200L)));
+        PersistenceThread.awaitIdle(10_000L);
+        List<String> lines = Files.readAllLines(dir.resolve("shared/a.00000.log"));
+        assertEquals(2, lines.size());
+        assertTrue(GSON.fromJson(lines.get(1), JsonObject.class).get("ts").getAsLong() > later);
+    }
+
+    @Test
+    void tailsOtherServersLogs() throws IOException {
+        ReplicationFeed a = feed("a");
+        ReplicationFeed b = feed("b");
+        List<StoreJournal.Record> first = List.of(StoreJournal.ban(STEVE, "Steve", 100L));
+        a.publish(first);
+        PersistenceThread.awaitIdle(10_000L);
+
+        b.start();
+        try {
+            ReplicationFeed.Change c = next(b);
+            assertEquals("a", c.node());
+            assertEquals(first, c.txn());
+            assertTrue(b.accept(c, c.txn().get(0)));
+            b.markApplied(c);
+
+            // a line arrives only once it is complete
+            Path foreign = dir.resolve("shared/c.00000.log");
+            String line = "{\"node\":\"c\",\"ts\":5,\"txn\":" + StoreJournal.encode(first) + "}";
+            Files.writeString(foreign, line, StandardCharsets.UTF_8);
+            Thread.sleep(500L);
+            assertNull(b.poll());
+            Files.writeString(foreign, "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            assertEquals("c", next(b).node());
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            b.stop();
+        }
+
+        // a restart resumes after what was applied: only the unapplied line from c comes again
+        ReplicationFeed again = feed("b");
+        again.start();
+        try {
+            assertEquals("c", next(again).node());
+            assertNull(again.poll());
+        } finally {
+            again.stop();
+        }
+    }
+
+    @Test
+    void oversizedLineIsSkipped() throws IOException {
+        Files.createDirectories(dir.resolve("shared"));
+        Path foreign = dir.resolve("shared/c.00000.log");
+        byte[] junk = new byte[(16 << 20) + 10];
+        Arrays.fill(junk, (byte) 'x');
+        junk[junk.length - 1] = '\n';
+        Files.write(foreign, junk);
+        String line = "{\"node\":\"c\",\"ts\":5,\"txn\":" + StoreJournal.encode(List.of(StoreJournal.unban(STEVE, null))) + "}\n";
+        Files.writeString(foreign, line, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        ReplicationFeed b = feed("b");
+        b.start();
+        try {
+            ReplicationFeed.Change c = next(b);
+            assertEquals(5L, c.ts());
+            assertEquals(Files.size(foreign), c.endOffset());
+        } finally {
+            b.stop();
+        }
+    }
+
+    private ReplicationFeed feed(String node) {
+        return new ReplicationFeed(dir.resolve("shared"), node, dir.resolve(node + "-state.json"));
+    }
+
+    private static ReplicationFeed.Change change(String node, long ts, StoreJournal.Record r) {
+        return new ReplicationFeed.Change(node + ".00000.log", 1L, node, ts, List.of(r));
+    }
+
+    private static ReplicationFeed.Change next(ReplicationFeed feed) {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        ReplicationFeed.Change c;
+        while ((c = feed.poll()) == null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20L);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+        assertNotNull(c);
+        return c;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.hardcoreban;
+
+import com.example.hardcoreban.StoreJournal.Op;
+import com.example.hardcoreban.StoreJournal.Record;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StoreJournalTest {
+
+    private static final UUID ID = UUID.fromString("0f3c8a1e-5b2d-4c6e-9a7f-1d2e3f405162");
+    private static final UUID ALEX = new UUID(2L, 2L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendReplayRoundTrip() {
+        List<Record> txn = List.of(
+                StoreJournal.ban(ID, "Steve", 1_700_000_000_000L),
+                StoreJournal.popAdd("Steve"),
+                StoreJournal.popRemove("Steve"),
+                StoreJournal.unban(ID, "Steve"));
+        StoreJournal journal = new StoreJournal(dir.resolve("journal.ndjson"));
+        journal.append(txn);
+        journal.append(StoreJournal.ban(ALEX, "Alex", 5L));
+
+        List<Record> expected = new ArrayList<>(txn);
+        expected.add(StoreJournal.ban(ALEX, "Alex", 5L));
+        assertEquals(expected, replay());
+    }
+
+    @Test
+    void nullNameSurvivesRoundTrip() {
+        // expiry unbans carry no name; the line leaves the field out
+        new StoreJournal(dir.resolve("journal.ndjson")).append(new Record(Op.UNBAN, ID, null, 0L));
+
+        assertEquals(List.of(new Record(Op.UNBAN, ID, null, 0L)), replay());
+    }
+
+    @Test
+    void untilIsOnlyKeptForBans() {
+        new StoreJournal(dir.resolve("journal.ndjson")).append(new Record(Op.UNBAN, ID, "Steve", 42L));
+
+        assertEquals(0L, replay().get(0).until());
+    }
+
+    @Test
+    void tornLastLineIsDropped() throws IOException {
+        StoreJournal journal = new StoreJournal(dir.resolve("journal.ndjson"));
+        journal.append(StoreJournal.ban(ID, "Steve", 1L));
+        PersistenceThread.awaitIdle(10_000L);
+
+        // crash in the middle of appending a revive
+        Files.writeString(dir.resolve("journal.ndjson"), "[{\"op\":\"UNBAN\",\"na", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        assertEquals(List.of(StoreJournal.ban(ID, "Steve", 1L)), replay());
+    }
+
+    private List<Record> replay() {
+        PersistenceThread.awaitIdle(10_000L);
+        List<Record> out = new ArrayList<>();
+        new StoreJournal(dir.resolve("journal.ndjson")).replay(out::add);
+        return out;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hardcoreban;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidBloomFilterTest {
+
+    @Test
+    void addedIdsAreAlwaysFound() {
+        UuidBloomFilter filter = new UuidBloomFilter(5_000);
+        Random random = new Random(11);
+        UUID[] ids = new UUID[5_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+            filter.add(ids[i]);
+        }
+        for (UUID id : ids) assertTrue(filter.mightContain(id));
+    }
+
+    @Test
+    void falsePositivesStayNearTheSizing() {
+        UuidBloomFilter filter = new UuidBloomFilter(5_000);
+        Random random = new Random(13);
+        for (int i = 0; i < 5_000; i++) filter.add(new UUID(random.nextLong(), random.nextLong()));
+
+        int hits = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(new UUID(random.nextLong(), random.nextLong()))) hits++;
+        }
+        // sized for ~1%
+        assertTrue(hits < probes * 3 / 100, "false positives: " + hits);
+    }
+
+    @Test
+    void saturatedAfterMoreInsertsThanExpected() {
+        UuidBloomFilter filter = new UuidBloomFilter(10);
+        for (int i = 0; i < 1_024; i++) filter.add(new UUID(0L, i));
+        assertFalse(filter.saturated());
+        filter.add(new UUID(1L, 0L));
+        assertTrue(filter.saturated());
+    }
+}